@@ -0,0 +1,77 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.reactivecustomers.ReactiveCustomersApplication;
+import com.kousenit.reactivecustomers.dao.CustomerRepository;
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the reactive-customers application once per trial and binds a WebTestClient
+ * directly to its context, so requests go through the full WebFlux stack without a socket.
+ */
+@State(Scope.Benchmark)
+public class CustomerApplicationState {
+    private static final int SEED_ROWS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository repository;
+    private WebTestClient client;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ReactiveCustomersApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("server.port=0",
+                        "logging.level.root=warn",
+                        "logging.level.org.springframework.r2dbc=warn")
+                .run();
+        repository = context.getBean(CustomerRepository.class);
+        client = WebTestClient.bindToApplicationContext(context)
+                .configureClient()
+                .responseTimeout(Duration.ofSeconds(30))
+                .build();
+
+        // AppInit has finished seeding by the time run() returns
+        ids = repository.insertAll(Flux.range(0, SEED_ROWS)
+                        .map(i -> new Customer(null, "First" + i, "Last" + i)), SEED_ROWS)
+                .map(Customer::id)
+                .collectList()
+                .block();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public WebTestClient client() {
+        return client;
+    }
+
+    public CustomerRepository repository() {
+        return repository;
+    }
+
+    public Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    public Customer newCustomer() {
+        int n = ThreadLocalRandom.current().nextInt(1_000_000);
+        return new Customer(null, "Bench" + n, "Mark" + n);
+    }
+}
@@ -0,0 +1,61 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Drives the annotated {@code CustomerController} endpoints under {@code /customers}.
+ * The controller has no PUT mapping, so there is no update benchmark here.
+ */
+public class CustomerControllerBenchmark {
+    private static final String BASE_PATH = "/customers";
+
+    @Benchmark
+    public List<Customer> findAll(CustomerApplicationState state) {
+        return state.client().get()
+                .uri(BASE_PATH)
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Customer findById(CustomerApplicationState state) {
+        return state.client().get()
+                .uri(BASE_PATH + "/{id}", state.randomId())
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Customer create(CustomerApplicationState state) {
+        return state.client().post()
+                .uri(BASE_PATH)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(state.newCustomer())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public void delete(CustomerApplicationState state, DeleteTarget target) {
+        state.client().delete()
+                .uri(BASE_PATH + "/{id}", target.id())
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
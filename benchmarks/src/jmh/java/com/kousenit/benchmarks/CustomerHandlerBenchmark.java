@@ -0,0 +1,77 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Drives the functional {@code CustomerHandler} routes registered by {@code RouterConfig}
+ * under {@code /functional/customers}.
+ */
+public class CustomerHandlerBenchmark {
+    private static final String BASE_PATH = "/functional/customers";
+
+    @Benchmark
+    public List<Customer> findAll(CustomerApplicationState state) {
+        return state.client().get()
+                .uri(BASE_PATH)
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Customer findById(CustomerApplicationState state) {
+        return state.client().get()
+                .uri(BASE_PATH + "/{id}", state.randomId())
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Customer create(CustomerApplicationState state) {
+        return state.client().post()
+                .uri(BASE_PATH)
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .bodyValue(state.newCustomer())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Customer update(CustomerApplicationState state) {
+        Long id = state.randomId();
+        Customer customer = state.newCustomer();
+        return state.client().put()
+                .uri(BASE_PATH + "/{id}", id)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new Customer(id, customer.firstName(), customer.lastName()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public void delete(CustomerApplicationState state, DeleteTarget target) {
+        state.client().delete()
+                .uri(BASE_PATH + "/{id}", target.id())
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
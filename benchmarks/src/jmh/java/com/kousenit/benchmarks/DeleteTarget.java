@@ -0,0 +1,56 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of freshly inserted rows, so the delete benchmarks always remove an existing
+ * customer and never measure the 404 path. The pool is filled before each iteration
+ * rather than before each invocation: an invocation-level fixture would cost more
+ * than the sub-millisecond delete it is meant to support. Running out mid-iteration
+ * fails the benchmark instead of refilling inside the measured code.
+ */
+@State(Scope.Thread)
+public class DeleteTarget {
+    // Covers a 10 s iteration (the JMH default) at up to 20,000 deletes per second
+    private static final int POOL_SIZE = 200_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    private final Deque<Long> ids = new ArrayDeque<>();
+    private CustomerApplicationState app;
+
+    @Setup(Level.Iteration)
+    public void fill(CustomerApplicationState app) {
+        this.app = app;
+        app.repository().insertAll(Flux.range(0, POOL_SIZE).map(i -> app.newCustomer()), CHUNK_SIZE)
+                .map(Customer::id)
+                .doOnNext(ids::add)
+                .blockLast();
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeUnused() {
+        Flux.fromIterable(ids)
+                .buffer(CHUNK_SIZE)
+                .concatMap(app.repository()::deleteAllById)
+                .blockLast();
+        ids.clear();
+    }
+
+    public Long id() {
+        Long id = ids.poll();
+        if (id == null) {
+            throw new IllegalStateException("Delete pool of " + POOL_SIZE
+                    + " ids exhausted within one iteration; raise POOL_SIZE or shorten the iteration");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,278 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test for a running reactive-customers instance. Requests are launched
+ * at a fixed arrival rate whether or not earlier ones have finished, the way independent
+ * clients behave, and drive both {@code /customers} and {@code /functional/customers}
+ * with a configurable mix of reads and writes.
+ * <p>
+ * Latency is measured from each request's scheduled start, not from when it was actually
+ * sent, which corrects for coordinated omission: when the server stalls, every request
+ * that should have been sent meanwhile is charged for the wait. Service time (from the
+ * actual send) is recorded alongside, so the two can be compared. Both are written as
+ * HdrHistogram percentile distributions, in milliseconds, to the report directory.
+ * Failed and timed-out requests are recorded too, so the slowest outcomes stay in the
+ * distribution; sends skipped because {@code max-in-flight} requests were outstanding
+ * are recorded as if they had timed out.
+ */
+public class LoadGenerator {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int KNOWN_IDS = 1_000;
+
+    record Options(String baseUrl, int rate, Duration duration, Duration warmup, double readRatio,
+                   List<Target> targets, int maxInFlight, Path reportDir) {
+
+        static Options parse(String[] args) {
+            String baseUrl = "http://localhost:8080";
+            int rate = 500;
+            Duration duration = Duration.ofSeconds(60);
+            Duration warmup = Duration.ofSeconds(10);
+            double readRatio = 0.9;
+            List<Target> targets = List.of(Target.values());
+            int maxInFlight = 10_000;
+            Path reportDir = Path.of("build/results/load");
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--base-url" -> baseUrl = args[++i];
+                    case "--rate" -> rate = Integer.parseInt(args[++i]);
+                    case "--duration" -> duration = parseDuration(args[++i]);
+                    case "--warmup" -> warmup = parseDuration(args[++i]);
+                    case "--read-ratio" -> readRatio = Double.parseDouble(args[++i]);
+                    case "--targets" -> targets = Target.parseAll(args[++i]);
+                    case "--max-in-flight" -> maxInFlight = Integer.parseInt(args[++i]);
+                    case "--report-dir" -> reportDir = Path.of(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            return new Options(baseUrl, rate, duration, warmup, readRatio, targets, maxInFlight, reportDir);
+        }
+
+        // 500ms, 30s, 2m
+        private static Duration parseDuration(String value) {
+            if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            if (value.endsWith("s")) return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+            if (value.endsWith("m")) return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+    }
+
+    enum Target {
+        // The annotated controller has no PUT mapping, so its writes are all creates
+        ANNOTATED("/customers", false),
+        FUNCTIONAL("/functional/customers", true);
+
+        private final String path;
+        private final boolean supportsUpdate;
+
+        Target(String path, boolean supportsUpdate) {
+            this.path = path;
+            this.supportsUpdate = supportsUpdate;
+        }
+
+        static List<Target> parseAll(String names) {
+            return Arrays.stream(names.split(","))
+                    .map(name -> valueOf(name.trim().toUpperCase()))
+                    .toList();
+        }
+    }
+
+    enum Operation {FIND_BY_ID, FIND_PAGE, CREATE, UPDATE}
+
+    /** Latency and service-time recorders, and error and dropped-send counts, for one target and operation. */
+    private static final class Stats {
+        private final Recorder latency = new Recorder(3);
+        private final Recorder serviceTime = new Recorder(3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+    }
+
+    private final Options options;
+    private final WebClient client;
+    private final Map<String, Stats> stats = new ConcurrentSkipListMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private List<Long> ids = List.of();
+
+    LoadGenerator(Options options) {
+        this.options = options;
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                .maxConnections(options.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(options.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        var generator = new LoadGenerator(Options.parse(args));
+        generator.run();
+        generator.report();
+    }
+
+    void run() throws InterruptedException {
+        ids = client.get()
+                .uri(uri -> uri.path(Target.ANNOTATED.path).queryParam("limit", KNOWN_IDS).build())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(Customer.class)
+                .map(Customer::id)
+                .collectList()
+                .block(REQUEST_TIMEOUT);
+        System.out.printf("Driving %s at %d req/s for %s (after %s warmup), %.0f%% reads%n",
+                options.baseUrl(), options.rate(), options.duration(), options.warmup(), options.readRatio() * 100);
+
+        long intervalNanos = 1_000_000_000L / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) break;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Target target = options.targets().get(random.nextInt(options.targets().size()));
+            Operation operation = pick(target, random);
+            Stats stat = stats.computeIfAbsent(target.name().toLowerCase() + "-" + operation.name().toLowerCase(),
+                    key -> new Stats());
+            boolean measured = intended >= measureFrom;
+            if (inFlight.get() >= options.maxInFlight()) {
+                // Past this point the generator itself is the bottleneck. Not queueing keeps the
+                // arrival rate honest; charging the timeout keeps the stall in the percentiles.
+                if (measured) {
+                    stat.dropped.incrementAndGet();
+                    stat.latency.recordValue(REQUEST_TIMEOUT.toNanos() / 1_000);
+                }
+                continue;
+            }
+            fire(target, operation, stat, intended, measured);
+        }
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void fire(Target target, Operation operation, Stats stat, long intendedStart, boolean measured) {
+        inFlight.incrementAndGet();
+        long sent = System.nanoTime();
+        request(target, operation, ThreadLocalRandom.current())
+                .timeout(REQUEST_TIMEOUT)
+                .doFinally(signal -> inFlight.decrementAndGet())
+                .subscribe(
+                        response -> {
+                            if (measured) record(stat, intendedStart, sent);
+                        },
+                        error -> {
+                            if (!measured) return;
+                            stat.errors.incrementAndGet();
+                            record(stat, intendedStart, sent);
+                        });
+    }
+
+    private static void record(Stats stat, long intendedStart, long sent) {
+        long now = System.nanoTime();
+        stat.latency.recordValue((now - intendedStart) / 1_000);
+        stat.serviceTime.recordValue((now - sent) / 1_000);
+    }
+
+    private Operation pick(Target target, ThreadLocalRandom random) {
+        if (random.nextDouble() < options.readRatio()) {
+            return ids.isEmpty() || random.nextInt(5) == 0 ? Operation.FIND_PAGE : Operation.FIND_BY_ID;
+        }
+        return target.supportsUpdate && !ids.isEmpty() && random.nextBoolean() ? Operation.UPDATE : Operation.CREATE;
+    }
+
+    private Mono<?> request(Target target, Operation operation, ThreadLocalRandom random) {
+        int n = random.nextInt(1_000_000);
+        return switch (operation) {
+            case FIND_BY_ID -> client.get()
+                    .uri(target.path + "/{id}", randomId(random))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .toBodilessEntity();
+            case FIND_PAGE -> client.get()
+                    .uri(uri -> uri.path(target.path).queryParam("after", randomId(random)).build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .toBodilessEntity();
+            case CREATE -> client.post()
+                    .uri(target.path)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new Customer(null, "Load" + n, "Test" + n))
+                    .retrieve()
+                    .toBodilessEntity();
+            case UPDATE -> client.put()
+                    .uri(target.path + "/{id}", randomId(random))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new Customer(null, "Load" + n, "Test" + n))
+                    .retrieve()
+                    .toBodilessEntity();
+        };
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return ids.isEmpty() ? 0 : ids.get(random.nextInt(ids.size()));
+    }
+
+    void report() throws IOException {
+        Files.createDirectories(options.reportDir());
+        System.out.printf("%-28s %8s %7s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "dropped", "p50", "p90", "p99", "p99.9", "max");
+        for (var entry : stats.entrySet()) {
+            Stats stat = entry.getValue();
+            Histogram latency = stat.latency.getIntervalHistogram();
+            Histogram serviceTime = stat.serviceTime.getIntervalHistogram();
+            System.out.printf("%-28s %8d %7d %8d %7.2fms %7.2fms %7.2fms %7.2fms %7.2fms%n",
+                    entry.getKey(), latency.getTotalCount(), stat.errors.get(), stat.dropped.get(),
+                    millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                    latency.getMaxValue() / 1_000.0);
+            write(latency, options.reportDir().resolve(entry.getKey() + ".hgrm"));
+            write(serviceTime, options.reportDir().resolve(entry.getKey() + "-service-time.hgrm"));
+        }
+        long dropped = stats.values().stream().mapToLong(stat -> stat.dropped.get()).sum();
+        if (dropped > 0) {
+            System.out.printf("%d requests not sent with %d already in flight, recorded at the %ds timeout%n",
+                    dropped, options.maxInFlight(), REQUEST_TIMEOUT.toSeconds());
+        }
+        System.out.println("Percentile distributions written to " + options.reportDir().toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    // Recorded in microseconds, reported in milliseconds
+    private static void write(Histogram histogram, Path file) throws IOException {
+        try (var out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.kousenit.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts each application repeatedly, with and without its CDS archive, and records
+ * the time from process launch to the first successful response on a given path.
+ * Driven by the {@code startupBenchmark} Gradle task, which passes one
+ * {@code --app name|jar|archive|path} per application.
+ */
+public class StartupBenchmark {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    record App(String name, Path jar, Path archive, String path) {
+        static App parse(String spec) {
+            String[] parts = spec.split("\\|");
+            return new App(parts[0], Path.of(parts[1]), Path.of(parts[2]), parts[3]);
+        }
+    }
+
+    record Result(String app, String mode, int run, long millis) {}
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final String java;
+    private final boolean aot;
+
+    StartupBenchmark(String java, boolean aot) {
+        this.java = java;
+        this.aot = aot;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = "java";
+        int runs = 5;
+        boolean aot = false;
+        Path report = Path.of("startup.csv");
+        List<App> apps = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--java" -> java = args[++i];
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                case "--aot" -> aot = true;
+                case "--report" -> report = Path.of(args[++i]);
+                case "--app" -> apps.add(App.parse(args[++i]));
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        var benchmark = new StartupBenchmark(java, aot);
+        List<Result> results = new ArrayList<>();
+        for (App app : apps) {
+            // Alternate modes so drift (thermal, page cache) affects both equally
+            for (int run = 1; run <= runs; run++) {
+                results.add(new Result(app.name(), benchmark.mode(false), run, benchmark.timeToFirstRequest(app, false)));
+                results.add(new Result(app.name(), benchmark.mode(true), run, benchmark.timeToFirstRequest(app, true)));
+            }
+        }
+        summarize(results);
+        write(results, report);
+    }
+
+    private String mode(boolean cds) {
+        return (aot ? "aot+" : "") + (cds ? "cds" : "jar");
+    }
+
+    long timeToFirstRequest(App app, boolean cds) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(java));
+        if (cds) command.add("-XX:SharedArchiveFile=" + app.archive());
+        if (aot) command.add("-Dspring.aot.enabled=true");
+        command.addAll(List.of("-jar", app.jar().toString(), "--server.port=" + port));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + app.path()))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(app.archive().getParent().toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(app.name() + " exited with " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException notListeningYet) {
+                    // keep polling
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException(app.name() + " did not answer " + app.path() + " within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void summarize(List<Result> results) {
+        System.out.printf("%-20s %-8s %8s %8s %8s%n", "app", "mode", "min", "median", "max");
+        results.stream()
+                .map(result -> List.of(result.app(), result.mode()))
+                .distinct()
+                .forEach(key -> {
+                    long[] millis = results.stream()
+                            .filter(result -> result.app().equals(key.get(0)) && result.mode().equals(key.get(1)))
+                            .mapToLong(Result::millis)
+                            .sorted()
+                            .toArray();
+                    System.out.printf("%-20s %-8s %6dms %6dms %6dms%n", key.get(0), key.get(1),
+                            millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+                });
+    }
+
+    private static void write(List<Result> results, Path report) {
+        List<String> lines = new ArrayList<>(List.of("app,mode,run,millis"));
+        results.forEach(result -> lines.add(String.join(",", result.app(), result.mode(),
+                String.valueOf(result.run()), String.valueOf(result.millis()))));
+        try {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            Files.write(report, lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("Wrote " + report.toAbsolutePath());
+    }
+}
@@ -0,0 +1,70 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.restclient.RestclientApplication;
+import com.kousenit.restclient.json.AstroResponse;
+import com.kousenit.restclient.services.AstroService;
+import com.kousenit.restclient.stub.AstroStub;
+import com.kousenit.restclient.stub.LatencyDistribution;
+import com.kousenit.restclient.stub.StubBehavior;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Calls the astronaut feed through {@link AstroService} against a local {@link AstroStub},
+ * so caching, the shared connection pool and upstream latency can be compared offline.
+ * A cache TTL of 0s sends every call upstream.
+ */
+@State(Scope.Benchmark)
+public class AstroUpstreamBenchmark {
+
+    @Param({"none", "fixed:5ms", "lognormal:5ms,1.0"})
+    private String latency;
+
+    @Param({"0s", "1h"})
+    private String cacheTtl;
+
+    @Param({"0", "1000"})
+    private int people;
+
+    private AstroStub stub;
+    private ConfigurableApplicationContext context;
+    private AstroService service;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        stub = AstroStub.start(0, Path.of("../restclient/astronauts.json"), StubBehavior.defaults()
+                .withLatency(LatencyDistribution.parse(latency))
+                .withPeople(people));
+        context = new SpringApplicationBuilder(RestclientApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0",
+                        "logging.level.root=warn",
+                        "astro.api.base-url=" + stub.baseUrl(),
+                        "astro.cache.ttl=" + cacheTtl,
+                        "astro.cache.stale-while-revalidate=0s")
+                .run();
+        service = context.getBean(AstroService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public AstroResponse async() {
+        return service.getAstroResponseAsync().block(Duration.ofSeconds(30));
+    }
+
+    @Benchmark
+    public AstroResponse sync() {
+        return service.getAstroResponseSync();
+    }
+}
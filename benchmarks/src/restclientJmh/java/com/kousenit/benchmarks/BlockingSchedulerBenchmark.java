@@ -0,0 +1,59 @@
+package com.kousenit.benchmarks;
+
+import com.kousenit.restclient.config.BlockingProperties;
+import com.kousenit.restclient.config.SchedulerConfig;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two {@code astro.blocking.mode} schedulers on a burst of concurrent
+ * blocking calls, each of which sleeps to stand in for a slow upstream or disk.
+ * Bounded elastic caps the threads and queues the rest; virtual threads run every call at once.
+ * <p>
+ * Mode, time unit and iteration counts come from the {@code jmh} block in build.gradle.
+ * A 50,000-call burst on bounded elastic takes seconds, so iterations here run long
+ * enough to collect more than a handful of operations each.
+ */
+@State(Scope.Benchmark)
+@Warmup(time = 10, timeUnit = TimeUnit.SECONDS)
+@Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+public class BlockingSchedulerBenchmark {
+    private static final Duration BLOCKING_CALL = Duration.ofMillis(10);
+
+    @Param({"BOUNDED_ELASTIC", "VIRTUAL_THREADS"})
+    private BlockingProperties.Mode mode;
+
+    @Param({"1000", "10000", "50000"})
+    private int concurrency;
+
+    private Scheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void createScheduler() {
+        scheduler = SchedulerConfig.create(mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public Long burstOfBlockingCalls() {
+        return Flux.range(0, concurrency)
+                .flatMap(i -> Mono.fromCallable(BlockingSchedulerBenchmark::blockingCall)
+                        .subscribeOn(scheduler), concurrency)
+                .count()
+                .block();
+    }
+
+    private static String blockingCall() throws InterruptedException {
+        Thread.sleep(BLOCKING_CALL);
+        return Thread.currentThread().getName();
+    }
+}
@@ -1,28 +1,41 @@
 package com.kousenit.reactivecustomers.config;
 
 import com.kousenit.reactivecustomers.dao.CustomerRepository;
-import com.kousenit.reactivecustomers.entities.Customer;
+import com.kousenit.reactivecustomers.services.CustomerLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 @Configuration
 public class AppInit {
+    private static final Logger log = LoggerFactory.getLogger(AppInit.class);
 
+    // Blocks until the table is loaded: runners finish before the application reports
+    // itself ready (readiness probe, ApplicationReadyEvent), so no traffic sees a partial table
     @Bean
-    public CommandLineRunner initializeDatabase(CustomerRepository repository) {
-        return args ->
-                repository.count().switchIfEmpty(Mono.just(0L))
-                        .flatMapMany(count -> repository.deleteAll()
-                                .thenMany(Flux.just(
-                                        new Customer(null, "Malcolm", "Reynolds"),
-                                        new Customer(null, "Zoë", "Washburne"),
-                                        new Customer(null, "Hoban", "Washburne"),
-                                        new Customer(null, "Jayne", "Cobb"),
-                                        new Customer(null, "Kaylee", "Frye")))
-                                .flatMap(repository::save))
-                        .subscribe(System.out::println);
+    @ConditionalOnProperty(name = "customers.seed.enabled", matchIfMissing = true)
+    public CommandLineRunner initializeDatabase(CustomerRepository repository,
+                                                CustomerLoader loader,
+                                                SeedProperties seed) {
+        return args -> {
+            CustomerLoader.Report report = switch (seed.mode()) {
+                case REPLACE -> repository.deleteAll()
+                        .then(loader.load(seed.location(), seed.chunkSize(), seed.concurrency()))
+                        .block();
+                case APPEND -> loader.load(seed.location(), seed.chunkSize(), seed.concurrency()).block();
+                case SKIP_DUPLICATES -> loader.loadSkippingDuplicates(seed.location(), seed.chunkSize(),
+                        seed.concurrency(), seed.expectedRows(), seed.falsePositiveRate()).block();
+            };
+            log.info("Loaded {} customers from {} in {} ms ({} rows/s)",
+                    report.rows(), seed.location().getDescription(),
+                    report.elapsed().toMillis(), Math.round(report.rowsPerSecond()));
+            if (seed.mode() == SeedProperties.Mode.SKIP_DUPLICATES) {
+                log.info("Skipped {} duplicates; checked {} rows against the table, {} lookups avoided",
+                        report.duplicates(), report.lookups(), report.lookupsAvoided());
+            }
+        };
     }
 }
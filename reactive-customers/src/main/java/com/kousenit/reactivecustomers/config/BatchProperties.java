@@ -0,0 +1,8 @@
+package com.kousenit.reactivecustomers.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("customers.batch")
+public record BatchProperties(@DefaultValue("500") int chunkSize) {
+}
@@ -0,0 +1,11 @@
+package com.kousenit.reactivecustomers.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("customers.cache")
+public record CacheProperties(@DefaultValue("10000") long maximumSize,
+                              @DefaultValue("5m") Duration ttl) {
+}
@@ -0,0 +1,16 @@
+package com.kousenit.reactivecustomers.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("customers.changes")
+public record ChangeStreamProperties(@DefaultValue("256") int bufferSize,
+                                     @DefaultValue("drop-oldest") Overflow overflow) {
+
+    public enum Overflow {
+        /** Discard the oldest buffered events and keep the subscriber connected */
+        DROP_OLDEST,
+        /** Terminate the subscription so the slow consumer reconnects and resyncs */
+        DISCONNECT
+    }
+}
@@ -0,0 +1,98 @@
+package com.kousenit.reactivecustomers.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.codec.smile.Jackson2SmileDecoder;
+import org.springframework.http.codec.smile.Jackson2SmileEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary alternatives to JSON for service-to-service calls: CBOR and Smile. Both use
+ * the same Jackson configuration as JSON. Registered as a {@link CodecCustomizer}, so
+ * the server, WebClient builders and the test client all pick them up.
+ */
+@Configuration
+public class CodecConfig {
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    /** Media types the customer routes accept and produce, JSON first. */
+    public static final List<MediaType> CUSTOMER_TYPES =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    /** The first of {@link #CUSTOMER_TYPES} the client accepts; JSON if it names none of them. */
+    public static MediaType responseType(List<MediaType> accepted) {
+        return accepted.stream()
+                .flatMap(type -> CUSTOMER_TYPES.stream().filter(type::equalsTypeAndSubtype))
+                .findFirst()
+                .orElse(MediaType.APPLICATION_JSON);
+    }
+
+    @Bean
+    public CodecCustomizer binaryCodecs(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper));
+            configurer.customCodecs().register(new CborArrayEncoder(cborMapper));
+            configurer.customCodecs().register(new CborArrayDecoder(cborMapper));
+        };
+    }
+
+    /**
+     * Spring's CBOR encoder only writes single values. This one also writes a
+     * {@code Flux} by collecting it into one CBOR array, as the JSON encoder does.
+     */
+    static class CborArrayEncoder extends Jackson2CborEncoder {
+        CborArrayEncoder(ObjectMapper mapper) {
+            super(mapper);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> input, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, @Nullable MimeType mimeType,
+                                       @Nullable Map<String, Object> hints) {
+            if (input instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(input)
+                    .collectList()
+                    .map(list -> encodeValue(list, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+    }
+
+    /** Reads a CBOR array into a {@code Flux}; Spring's CBOR decoder only reads single values. */
+    static class CborArrayDecoder extends Jackson2CborDecoder {
+        CborArrayDecoder(ObjectMapper mapper) {
+            super(mapper);
+        }
+
+        @Override
+        public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return decodeToMono(input, listType, mimeType, hints)
+                    .flatMapIterable(list -> (List<?>) list);
+        }
+    }
+}
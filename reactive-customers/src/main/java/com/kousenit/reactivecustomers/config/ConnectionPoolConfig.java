@@ -0,0 +1,28 @@
+package com.kousenit.reactivecustomers.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConnectionPoolConfig {
+
+    // The pool itself is built by Spring Boot from the spring.r2dbc.pool.* properties;
+    // this only adds the acquire-latency histogram on top of it
+    @Bean
+    public static BeanPostProcessor timedConnectionPool(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionPool pool) {
+                    MeterRegistry meterRegistry = registry.getIfAvailable();
+                    return meterRegistry == null ? pool : new TimedConnectionFactory(pool, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.kousenit.reactivecustomers.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * HTTP routes, both annotated and functional, are already observed by Spring Boot
+ * as http.server.requests. This adds the equivalent for repository methods, which
+ * Boot only instruments for blocking repositories.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public static BeanPostProcessor repositoryObservations(ObjectProvider<ObservationRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(new RepositoryObservationInterceptor(
+                                            () -> registry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                                            information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.kousenit.reactivecustomers.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("customers.page")
+public record PageProperties(@DefaultValue("100") int defaultSize,
+                             @DefaultValue("1000") int maxSize) {
+
+    public int limit(Integer requested) {
+        if (requested == null || requested <= 0) return defaultSize;
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,45 @@
+package com.kousenit.reactivecustomers.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Times every reactive repository method from subscription to termination, rather
+ * than just the call that assembles the publisher.
+ */
+class RepositoryObservationInterceptor implements MethodInterceptor {
+    static final String OBSERVATION_NAME = "customers.repository";
+
+    private final Supplier<ObservationRegistry> registry;
+    private final String repository;
+
+    RepositoryObservationInterceptor(Supplier<ObservationRegistry> registry, Class<?> repositoryInterface) {
+        this.registry = registry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String method = invocation.getMethod().getName();
+        if (result instanceof Mono<?> mono) {
+            return mono.name(OBSERVATION_NAME)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tap(Micrometer.observation(registry.get()));
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.name(OBSERVATION_NAME)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tap(Micrometer.observation(registry.get()));
+        }
+        return result;
+    }
+}
@@ -3,22 +3,34 @@ package com.kousenit.reactivecustomers.config;
 import com.kousenit.reactivecustomers.controllers.CustomerHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import static com.kousenit.reactivecustomers.config.CodecConfig.APPLICATION_SMILE;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 import static org.springframework.web.reactive.function.server.RequestPredicates.*;
 
 @Configuration
 public class RouterConfig {
+    private static final MediaType[] CUSTOMERS = CodecConfig.CUSTOMER_TYPES.toArray(MediaType[]::new);
+    private static final MediaType[] BATCH = {APPLICATION_JSON, APPLICATION_NDJSON, APPLICATION_CBOR, APPLICATION_SMILE};
+
     @Bean
     public RouterFunction<ServerResponse> route(CustomerHandler handler) {
         return RouterFunctions
-                .route(GET("/functional/customers/{id}").and(accept(APPLICATION_JSON)), handler::getCustomer)
-                .andRoute(GET("/functional/customers").and(accept(APPLICATION_JSON)), handler::listCustomers)
-                .andRoute(POST("/functional/customers").and(contentType(APPLICATION_JSON)), handler::createCustomer)
-                .andRoute(PUT("/functional/customers/{id}").and(contentType(APPLICATION_JSON)), handler::updateCustomer)
+                .route(GET("/functional/customers/search").and(accept(CUSTOMERS)), handler::searchCustomers)
+                .andRoute(GET("/functional/customers/changes"), handler::streamChanges)
+                .andRoute(GET("/functional/customers/{id}").and(accept(CUSTOMERS)), handler::getCustomer)
+                .andRoute(GET("/functional/customers").and(accept(CUSTOMERS)), handler::listCustomers)
+                .andRoute(GET("/functional/customers").and(accept(APPLICATION_NDJSON, TEXT_EVENT_STREAM)), handler::streamCustomers)
+                .andRoute(POST("/functional/customers").and(contentType(CUSTOMERS)), handler::createCustomer)
+                .andRoute(POST("/functional/customers/batch").and(contentType(BATCH)), handler::createCustomers)
+                .andRoute(PUT("/functional/customers/{id}").and(contentType(CUSTOMERS)), handler::updateCustomer)
                 .andRoute(DELETE("/functional/customers/{id}"), handler::deleteCustomer);
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.kousenit.reactivecustomers.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.core.io.Resource;
+
+/**
+ * The file loaded into the customer table at startup (CSV or NDJSON, by extension),
+ * how many rows go into each INSERT, and how many INSERTs may run at once.
+ * In {@code skip-duplicates} mode, the duplicate filter is sized for the existing rows
+ * plus {@code expectedRows} at {@code falsePositiveRate}.
+ */
+@ConfigurationProperties("customers.seed")
+public record SeedProperties(@DefaultValue("classpath:customers.csv") Resource location,
+                             @DefaultValue("1000") int chunkSize,
+                             @DefaultValue("4") int concurrency,
+                             @DefaultValue("replace") Mode mode,
+                             @DefaultValue("1000000") long expectedRows,
+                             @DefaultValue("0.01") double falsePositiveRate) {
+
+    public enum Mode {
+        /** Delete every customer, then insert the file */
+        REPLACE,
+        /** Insert the file into the existing table as is */
+        APPEND,
+        /** Insert only customers whose first and last name are not in the table or earlier in the file */
+        SKIP_DUPLICATES
+    }
+}
@@ -0,0 +1,65 @@
+package com.kousenit.reactivecustomers.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long callers wait to acquire a connection from the pool.
+ * Implements {@link Wrapped} so Spring Boot still finds the underlying pool
+ * and exports its acquired/idle/pending gauges.
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+    private final ConnectionFactory delegate;
+    private final Timer acquired;
+    private final Timer failed;
+
+    public TimedConnectionFactory(ConnectionFactory delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.acquired = acquireTimer(registry, "success");
+        this.failed = acquireTimer(registry, "error");
+    }
+
+    private static Timer acquireTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("r2dbc.pool.acquire")
+                .description("Time spent waiting for a pooled connection")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.<Connection>from(delegate.create())
+                    .doOnSuccess(connection -> acquired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+}
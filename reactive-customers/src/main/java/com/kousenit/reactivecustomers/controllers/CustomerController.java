@@ -1,49 +1,139 @@
 package com.kousenit.reactivecustomers.controllers;
 
+import com.kousenit.reactivecustomers.config.BatchProperties;
+import com.kousenit.reactivecustomers.config.CodecConfig;
+import com.kousenit.reactivecustomers.config.PageProperties;
+import com.kousenit.reactivecustomers.config.StreamProperties;
 import com.kousenit.reactivecustomers.dao.CustomerRepository;
 import com.kousenit.reactivecustomers.entities.Customer;
+import com.kousenit.reactivecustomers.services.CustomerChange;
+import com.kousenit.reactivecustomers.services.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
     private final CustomerRepository repository;
+    private final CustomerService service;
+    private final PageProperties pageProperties;
+    private final StreamProperties streamProperties;
+    private final BatchProperties batchProperties;
 
     @Autowired
-    public CustomerController(CustomerRepository repository) {
+    public CustomerController(CustomerRepository repository,
+                              CustomerService service,
+                              PageProperties pageProperties,
+                              StreamProperties streamProperties,
+                              BatchProperties batchProperties) {
         this.repository = repository;
+        this.service = service;
+        this.pageProperties = pageProperties;
+        this.streamProperties = streamProperties;
+        this.batchProperties = batchProperties;
     }
 
     @GetMapping
-    public Flux<Customer> findAll() {
-        return repository.findAll();
+    public Mono<ResponseEntity<List<Customer>>> findAll(@RequestParam(defaultValue = "0") long after,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        ServerHttpRequest request) {
+        int pageSize = pageProperties.limit(limit);
+        return repository.findPage(after, pageSize)
+                .collectList()
+                .map(page -> {
+                    MediaType mediaType = CodecConfig.responseType(request.getHeaders().getAccept());
+                    var response = ResponseEntity.ok()
+                            .contentType(mediaType)
+                            .varyBy(CustomerETags.VARY);
+                    if (page.size() == pageSize) {
+                        String next = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("after", page.get(page.size() - 1).id())
+                                .replaceQueryParam("limit", pageSize)
+                                .build()
+                                .toUriString();
+                        response.header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next));
+                    }
+                    // ResponseEntityResultHandler answers a matching If-None-Match with 304
+                    return response.eTag(CustomerETags.of(page, mediaType)).body(page);
+                });
+    }
+
+    // Streams every row as it is read; cancelling the response cancels the DB cursor
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Customer> stream() {
+        int fetchSize = streamProperties.fetchSize();
+        return repository.streamAll(fetchSize)
+                .limitRate(fetchSize);
+    }
+
+    @GetMapping("search")
+    public Flux<Customer> search(@RequestParam(required = false) String lastName,
+                                 @RequestParam(required = false) String prefix,
+                                 @RequestParam(required = false) String firstName,
+                                 @RequestParam(required = false) Integer limit) {
+        int maxResults = pageProperties.limit(limit);
+        if (lastName != null && !lastName.isBlank()) {
+            return service.searchByLastName(lastName, firstName, maxResults);
+        }
+        if (prefix != null && !prefix.isBlank()) {
+            return service.searchByLastNamePrefix(prefix, firstName, maxResults);
+        }
+        return Flux.error(new ServerWebInputException("Either lastName or prefix is required"));
+    }
+
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CustomerChange>> changes() {
+        return service.changes()
+                .map(change -> ServerSentEvent.builder(change)
+                        .event(change.type().name())
+                        .build());
     }
 
     @GetMapping("{id}")
-    public Mono<ResponseEntity<Customer>> findById(@PathVariable Long id) {
-        return repository.findById(id)
-                .log()
-                .map(ResponseEntity::ok)
+    public Mono<ResponseEntity<Customer>> findById(@PathVariable Long id, ServerHttpRequest request) {
+        MediaType mediaType = CodecConfig.responseType(request.getHeaders().getAccept());
+        return service.findById(id)
+                .map(customer -> ResponseEntity.ok()
+                        .contentType(mediaType)
+                        .varyBy(CustomerETags.VARY)
+                        .eTag(CustomerETags.of(customer, mediaType))
+                        .body(customer))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<Customer> create(@RequestBody Customer customer) {
-        return repository.save(customer);
+        return service.create(customer);
+    }
+
+    @PostMapping(value = "batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                    MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"})
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<Customer> createAll(@RequestBody Flux<Customer> customers) {
+        return service.createAll(customers, batchProperties.chunkSize());
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> delete(@PathVariable Long id) {
-        return repository.findById(id)
+        return service.deleteById(id)
+                .filter(deleted -> deleted)
                 .switchIfEmpty(Mono.error(new IllegalArgumentException(
                         "Customer with id %d not found".formatted(id))))
-                .flatMap(repository::delete);
+                .then();
     }
 }
@@ -0,0 +1,54 @@
+package com.kousenit.reactivecustomers.controllers;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Weak ETags computed from customer fields and the response media type (64-bit FNV-1a),
+ * so a conditional GET can be answered with 304 without serializing the response body first.
+ * Weak, because compression can change the bytes of the same representation; responses
+ * carrying them vary by {@link #VARY}, so caches keep each format apart.
+ */
+final class CustomerETags {
+    static final String[] VARY = {HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING};
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private CustomerETags() {}
+
+    static String of(Customer customer, MediaType mediaType) {
+        return format(hash(mix(FNV_OFFSET, mediaType.toString()), customer));
+    }
+
+    static String of(List<Customer> customers, MediaType mediaType) {
+        long hash = mix(FNV_OFFSET, mediaType.toString());
+        for (Customer customer : customers) {
+            hash = hash(hash, customer);
+        }
+        return format(hash);
+    }
+
+    private static long hash(long hash, Customer customer) {
+        hash = mix(hash, String.valueOf(customer.id()));
+        hash = mix(hash, customer.firstName());
+        return mix(hash, customer.lastName());
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // Field separator, so ("ab", "c") and ("a", "bc") hash differently
+        return (hash ^ 0xffff) * FNV_PRIME;
+    }
+
+    private static String format(long hash) {
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+}
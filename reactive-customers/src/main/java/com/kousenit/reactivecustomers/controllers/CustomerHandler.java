@@ -1,46 +1,142 @@
 package com.kousenit.reactivecustomers.controllers;
 
+import com.kousenit.reactivecustomers.config.BatchProperties;
+import com.kousenit.reactivecustomers.config.CodecConfig;
+import com.kousenit.reactivecustomers.config.PageProperties;
+import com.kousenit.reactivecustomers.config.StreamProperties;
 import com.kousenit.reactivecustomers.dao.CustomerRepository;
 import com.kousenit.reactivecustomers.entities.Customer;
+import com.kousenit.reactivecustomers.services.CustomerChange;
+import com.kousenit.reactivecustomers.services.CustomerService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import static org.springframework.http.MediaType.APPLICATION_JSON;
+import java.util.Optional;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 
 @Component
 public class CustomerHandler {
     private final CustomerRepository repository;
+    private final CustomerService service;
+    private final PageProperties pageProperties;
+    private final StreamProperties streamProperties;
+    private final BatchProperties batchProperties;
 
-    public CustomerHandler(CustomerRepository repository) {
+    public CustomerHandler(CustomerRepository repository,
+                           CustomerService service,
+                           PageProperties pageProperties,
+                           StreamProperties streamProperties,
+                           BatchProperties batchProperties) {
         this.repository = repository;
+        this.service = service;
+        this.pageProperties = pageProperties;
+        this.streamProperties = streamProperties;
+        this.batchProperties = batchProperties;
     }
 
     public Mono<ServerResponse> listCustomers(ServerRequest request) {
+        long after = request.queryParam("after").map(Long::valueOf).orElse(0L);
+        int pageSize = pageProperties.limit(request.queryParam("limit").map(Integer::valueOf).orElse(null));
+        return repository.findPage(after, pageSize)
+                .collectList()
+                .flatMap(page -> {
+                    MediaType mediaType = responseType(request);
+                    var response = ServerResponse.ok()
+                            .contentType(mediaType)
+                            .varyBy(CustomerETags.VARY);
+                    if (page.size() == pageSize) {
+                        String next = request.uriBuilder()
+                                .replaceQueryParam("after", page.get(page.size() - 1).id())
+                                .replaceQueryParam("limit", pageSize)
+                                .build()
+                                .toString();
+                        response.header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next));
+                    }
+                    String eTag = CustomerETags.of(page, mediaType);
+                    return notModified(request, eTag)
+                            .switchIfEmpty(Mono.defer(() -> response.eTag(eTag).bodyValue(page)));
+                });
+    }
+
+    public Mono<ServerResponse> streamCustomers(ServerRequest request) {
+        MediaType mediaType = request.headers().accept().contains(TEXT_EVENT_STREAM) ?
+                TEXT_EVENT_STREAM : APPLICATION_NDJSON;
+        int fetchSize = streamProperties.fetchSize();
         return ServerResponse.ok()
-                .contentType(APPLICATION_JSON)
-                .body(repository.findAll(), Customer.class);
+                .contentType(mediaType)
+                .body(repository.streamAll(fetchSize).limitRate(fetchSize), Customer.class);
     }
 
     public Mono<ServerResponse> createCustomer(ServerRequest request) {
         Mono<Customer> customerMono = request.bodyToMono(Customer.class);
         return customerMono.flatMap(customer ->
                 ServerResponse.status(HttpStatus.CREATED)
-                        .contentType(APPLICATION_JSON)
-                        .body(repository.save(customer), Customer.class));
+                        .contentType(responseType(request))
+                        .body(service.create(customer), Customer.class));
+    }
+
+    public Mono<ServerResponse> createCustomers(ServerRequest request) {
+        Flux<Customer> customers = request.bodyToFlux(Customer.class);
+        return ServerResponse.status(HttpStatus.CREATED)
+                .contentType(responseType(request))
+                .body(service.createAll(customers, batchProperties.chunkSize()), Customer.class);
+    }
+
+    public Mono<ServerResponse> searchCustomers(ServerRequest request) {
+        String firstName = request.queryParam("firstName").orElse(null);
+        int maxResults = pageProperties.limit(request.queryParam("limit").map(Integer::valueOf).orElse(null));
+        Optional<String> lastName = request.queryParam("lastName").filter(name -> !name.isBlank());
+        Optional<String> prefix = request.queryParam("prefix").filter(name -> !name.isBlank());
+
+        Flux<Customer> results;
+        if (lastName.isPresent()) {
+            results = service.searchByLastName(lastName.get(), firstName, maxResults);
+        } else if (prefix.isPresent()) {
+            results = service.searchByLastNamePrefix(prefix.get(), firstName, maxResults);
+        } else {
+            return Mono.error(new ServerWebInputException("Either lastName or prefix is required"));
+        }
+        return ServerResponse.ok()
+                .contentType(responseType(request))
+                .body(results, Customer.class);
+    }
+
+    public Mono<ServerResponse> streamChanges(ServerRequest request) {
+        Flux<ServerSentEvent<CustomerChange>> events = service.changes()
+                .map(change -> ServerSentEvent.builder(change)
+                        .event(change.type().name())
+                        .build());
+        return ServerResponse.ok()
+                .contentType(TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(events));
     }
 
     public Mono<ServerResponse> getCustomer(ServerRequest request) {
         String id = request.pathVariable("id");
         Mono<ServerResponse> notFound = ServerResponse.notFound().build();
-        Mono<Customer> customerMono = this.repository.findById(Long.valueOf(id));
+        Mono<Customer> customerMono = service.findById(Long.valueOf(id));
         return customerMono
-                .flatMap(customer -> ServerResponse.ok()
-                        .contentType(APPLICATION_JSON)
-                        .body(BodyInserters.fromValue(customer)))
+                .flatMap(customer -> {
+                    MediaType mediaType = responseType(request);
+                    String eTag = CustomerETags.of(customer, mediaType);
+                    return notModified(request, eTag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                    .contentType(mediaType)
+                                    .varyBy(CustomerETags.VARY)
+                                    .eTag(eTag)
+                                    .body(BodyInserters.fromValue(customer))));
+                })
                 .switchIfEmpty(notFound);
     }
 
@@ -49,15 +145,11 @@ public class CustomerHandler {
         Mono<Customer> customerMono = request.bodyToMono(Customer.class);
         Mono<ServerResponse> notFound = ServerResponse.notFound().build();
         
-        return repository.findById(Long.valueOf(id))
-                .flatMap(existingCustomer -> 
-                    customerMono.flatMap(customer -> {
-                        Customer updatedCustomer = new Customer(Long.valueOf(id), 
-                            customer.firstName(), customer.lastName());
-                        return ServerResponse.ok()
-                                .contentType(APPLICATION_JSON)
-                                .body(repository.save(updatedCustomer), Customer.class);
-                    }))
+        return customerMono
+                .flatMap(customer -> service.update(Long.valueOf(id), customer))
+                .flatMap(updatedCustomer -> ServerResponse.ok()
+                        .contentType(responseType(request))
+                        .bodyValue(updatedCustomer))
                 .switchIfEmpty(notFound);
     }
 
@@ -65,10 +157,19 @@ public class CustomerHandler {
         String id = request.pathVariable("id");
         Mono<ServerResponse> notFound = ServerResponse.notFound().build();
         
-        return repository.findById(Long.valueOf(id))
-                .flatMap(customer -> 
-                    repository.delete(customer)
-                            .then(ServerResponse.noContent().build()))
-                .switchIfEmpty(notFound);
+        return service.deleteById(Long.valueOf(id))
+                .flatMap(deleted -> deleted ? ServerResponse.noContent().build() : notFound);
+    }
+
+    private static MediaType responseType(ServerRequest request) {
+        return CodecConfig.responseType(request.headers().accept());
+    }
+
+    // A 304 carries the same Vary as the 200 it stands in for
+    private static Mono<ServerResponse> notModified(ServerRequest request, String eTag) {
+        return request.checkNotModified(eTag)
+                .flatMap(response -> ServerResponse.from(response)
+                        .varyBy(CustomerETags.VARY)
+                        .build());
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,44 @@
 package com.kousenit.reactivecustomers.dao;
 
 import com.kousenit.reactivecustomers.entities.Customer;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface CustomerRepository extends ReactiveCrudRepository<Customer, Long> {
+public interface CustomerRepository extends ReactiveCrudRepository<Customer, Long>, CustomerRepositoryCustom {
     Flux<Customer> findByLastName(String lastName);
+
+    // Both searches match the first name ignoring case, whichever the service picks
+    @Query("""
+            select * from customer
+            where last_name = :lastName
+              and (:firstName is null or upper(first_name) = upper(:firstName))
+            order by first_name, id
+            limit :limit""")
+    Flux<Customer> searchByLastName(String lastName, String firstName, int limit);
+
+    // Range scan on the indexed upper-case key; from/to bound the prefix
+    @Query("""
+            select * from customer
+            where last_name_key >= :from and last_name_key < :to
+              and (:firstName is null or upper(first_name) = upper(:firstName))
+            order by last_name_key, first_name, id
+            limit :limit""")
+    Flux<Customer> searchByLastNameKeyRange(String from, String to, String firstName, int limit);
+
+    // Keyset pagination: seek past the last id seen instead of using OFFSET
+    @Query("select * from customer where id > :after order by id limit :limit")
+    Flux<Customer> findPage(long after, int limit);
+
+    // Single statements that report the affected row count, so callers
+    // don't need a findById first to tell "updated" from "not found"
+    @Modifying
+    @Query("update customer set first_name = :firstName, last_name = :lastName where id = :id")
+    Mono<Integer> updateById(Long id, String firstName, String lastName);
+
+    @Modifying
+    @Query("delete from customer where id = :id")
+    Mono<Integer> removeById(Long id);
 }
@@ -0,0 +1,16 @@
+package com.kousenit.reactivecustomers.dao;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface CustomerRepositoryCustom {
+    Flux<Customer> streamAll(int fetchSize);
+
+    Flux<Customer> insertAll(Publisher<Customer> customers, int chunkSize);
+
+    // Stored rows equal to any candidate (same first and last name), in a single query
+    Flux<Customer> findExisting(Collection<Customer> candidates);
+}
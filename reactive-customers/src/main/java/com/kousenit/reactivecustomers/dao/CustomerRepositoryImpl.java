@@ -0,0 +1,78 @@
+package com.kousenit.reactivecustomers.dao;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+// Spring Data picks this up as the implementation of CustomerRepositoryCustom
+// because of the "Impl" suffix on the repository name
+class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+    private final DatabaseClient databaseClient;
+
+    CustomerRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Customer> streamAll(int fetchSize) {
+        return databaseClient.sql("select * from customer order by id")
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(CustomerRepositoryImpl::toCustomer)
+                .all();
+    }
+
+    @Override
+    public Flux<Customer> insertAll(Publisher<Customer> customers, int chunkSize) {
+        return Flux.from(customers)
+                .buffer(chunkSize)
+                .concatMap(this::insertChunk);
+    }
+
+    // One statement per chunk, with a binding per row, so each chunk costs a single round trip
+    private Flux<Customer> insertChunk(List<Customer> chunk) {
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection
+                    .createStatement("insert into customer (first_name, last_name) values ($1, $2)")
+                    .returnGeneratedValues("id");
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) statement.add();
+                statement.bind(0, chunk.get(i).firstName())
+                        .bind(1, chunk.get(i).lastName());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map(row -> row.get("id", Long.class)))
+                    .zipWithIterable(chunk, (id, customer) ->
+                            new Customer(id, customer.firstName(), customer.lastName()));
+        });
+    }
+
+    @Override
+    public Flux<Customer> findExisting(Collection<Customer> candidates) {
+        if (candidates.isEmpty()) return Flux.empty();
+        var sql = new StringJoiner(", ", "select * from customer where (first_name, last_name) in (", ")");
+        for (int i = 0; i < candidates.size(); i++) {
+            sql.add("($%d, $%d)".formatted(2 * i + 1, 2 * i + 2));
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        int index = 0;
+        for (Customer candidate : candidates) {
+            spec = spec.bind(index++, candidate.firstName())
+                    .bind(index++, candidate.lastName());
+        }
+        return spec.map(CustomerRepositoryImpl::toCustomer).all();
+    }
+
+    private static Customer toCustomer(Readable row) {
+        return new Customer(
+                row.get("id", Long.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class));
+    }
+}
@@ -0,0 +1,63 @@
+package com.kousenit.reactivecustomers.services;
+
+/**
+ * A fixed-size Bloom filter over strings. {@link #mightContain} is always true for a key
+ * that was {@link #put}, and true for an absent key with roughly the false-positive
+ * rate the filter was sized for. Not thread-safe.
+ */
+final class BloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashes;
+
+    private BloomFilter(long bitCount, int hashes) {
+        this.bits = new long[(int) ((bitCount + 63) / 64)];
+        this.bitCount = bits.length * 64L;
+        this.hashes = hashes;
+    }
+
+    static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(1, expectedKeys);
+        long bitCount = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        return new BloomFilter(bitCount, hashes);
+    }
+
+    void put(String key) {
+        long h1 = hash(key);
+        long h2 = fmix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = fmix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // Two hashes combined as h1 + i * h2 stand in for k independent ones (Kirsch-Mitzenmacher)
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return fmix(h);
+    }
+
+    // MurmurHash3 finalizer, to spread FNV's weak low bits
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,20 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.kousenit.reactivecustomers.entities.Customer;
+
+public record CustomerChange(Type type, Long id, Customer customer) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static CustomerChange created(Customer customer) {
+        return new CustomerChange(Type.CREATED, customer.id(), customer);
+    }
+
+    public static CustomerChange updated(Customer customer) {
+        return new CustomerChange(Type.UPDATED, customer.id(), customer);
+    }
+
+    public static CustomerChange deleted(Long id) {
+        return new CustomerChange(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.kousenit.reactivecustomers.config.ChangeStreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hot stream of customer mutations. Events are multicast to whoever is subscribed
+ * at the time; each subscriber gets its own bounded buffer so one slow consumer
+ * cannot hold up the others or the write path.
+ */
+@Component
+public class CustomerChangePublisher {
+    private final Sinks.Many<CustomerChange> sink = Sinks.many().multicast().directBestEffort();
+    // Sinks need serialized emits; the lock is held only while handing the event to subscriber buffers
+    private final Lock emitLock = new ReentrantLock();
+    private final ChangeStreamProperties properties;
+    private final MeterRegistry registry;
+
+    public CustomerChangePublisher(ChangeStreamProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    /**
+     * Best effort: the write being reported has already committed, so an event that
+     * cannot be emitted is counted in {@code customers.changes.dropped}, never thrown.
+     * Events a slow subscriber's buffer has to discard are counted there as well.
+     */
+    public void publish(CustomerChange change) {
+        Sinks.EmitResult result;
+        emitLock.lock();
+        try {
+            result = sink.tryEmitNext(change);
+        } finally {
+            emitLock.unlock();
+        }
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            dropped(result.name()).increment();
+        }
+    }
+
+    public Flux<CustomerChange> changes() {
+        Flux<CustomerChange> changes = sink.asFlux();
+        return switch (properties.overflow()) {
+            case DROP_OLDEST -> changes.onBackpressureBuffer(
+                    properties.bufferSize(), change -> dropped("SUBSCRIBER_OVERFLOW").increment(),
+                    BufferOverflowStrategy.DROP_OLDEST);
+            case DISCONNECT -> changes.onBackpressureBuffer(properties.bufferSize())
+                    .doOnError(Exceptions::isOverflow, error -> dropped("SUBSCRIBER_DISCONNECTED").increment());
+        };
+    }
+
+    // Every event that some subscriber will never see, by why it was lost
+    private Counter dropped(String reason) {
+        return Counter.builder("customers.changes.dropped")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
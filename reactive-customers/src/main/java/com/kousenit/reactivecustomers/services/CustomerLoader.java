@@ -0,0 +1,187 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.kousenit.reactivecustomers.dao.CustomerRepository;
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a file of customers into the customer table without reading it all into memory.
+ * <ul>
+ *     <li>{@code .csv}: a header row, then {@code first_name,last_name} per line (quoted fields allowed)</li>
+ *     <li>{@code .ndjson} or {@code .jsonl}: one JSON customer per line</li>
+ * </ul>
+ * Rows are inserted in chunks, each a single multi-row INSERT, with a bounded number
+ * of chunks in flight. Ids are assigned in file order within a chunk; with more than
+ * one chunk in flight, chunks may interleave.
+ * <p>
+ * {@link #loadSkippingDuplicates} leaves out customers already in the table or earlier
+ * in the file, by {@link Customer#equals} (first and last name). A Bloom filter of the
+ * table's names answers "definitely new" for most rows; only the rows it may have seen
+ * are checked exactly, with one query per chunk.
+ */
+@Service
+public class CustomerLoader {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int PREFILL_FETCH_SIZE = 1024;
+
+    private final CustomerRepository repository;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+
+    public CustomerLoader(CustomerRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.jsonReader = objectMapper.readerFor(Customer.class);
+        this.csvReader = new CsvMapper().readerFor(Customer.class)
+                .with(CsvSchema.builder()
+                        .addColumn("firstName")
+                        .addColumn("lastName")
+                        .build());
+    }
+
+    /**
+     * {@code duplicates} rows were skipped; {@code lookups} rows were checked against the
+     * table and {@code lookupsAvoided} were not, because the filter ruled them out.
+     */
+    public record Report(long rows, long duplicates, long lookups, long lookupsAvoided, Duration elapsed) {
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? rows : rows * 1e9 / elapsed.toNanos();
+        }
+    }
+
+    public Mono<Report> load(Resource resource, int chunkSize, int concurrency) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return customers(resource).buffer(chunkSize)
+                    .flatMap(chunk -> repository.insertAll(Flux.fromIterable(chunk), chunkSize).count(),
+                            concurrency)
+                    .reduce(0L, Long::sum)
+                    .map(rows -> new Report(rows, 0, 0, 0, Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    /**
+     * Like {@link #load}, but skips duplicates. The filter is sized for the current table
+     * plus {@code expectedRows} new names at the given false-positive rate; a false
+     * positive costs an exact lookup, never a lost row.
+     */
+    public Mono<Report> loadSkippingDuplicates(Resource resource, int chunkSize, int concurrency,
+                                               long expectedRows, double falsePositiveRate) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            var dedup = new Deduplication();
+            return repository.count()
+                    .flatMap(existing -> {
+                        BloomFilter filter = BloomFilter.create(existing + expectedRows, falsePositiveRate);
+                        return repository.streamAll(PREFILL_FETCH_SIZE)
+                                .doOnNext(customer -> filter.put(key(customer)))
+                                .then(Mono.just(filter));
+                    })
+                    .flatMapMany(filter -> customers(resource).buffer(chunkSize)
+                            .concatMap(chunk -> dedup.newCustomers(chunk, filter))
+                            .filter(chunk -> !chunk.isEmpty())
+                            .flatMap(chunk -> repository.insertAll(Flux.fromIterable(chunk), chunkSize).count()
+                                            .doFinally(signal -> dedup.inFlight.removeAll(chunk)),
+                                    concurrency))
+                    .reduce(0L, Long::sum)
+                    .map(rows -> new Report(rows, dedup.duplicates.get(), dedup.lookups.get(),
+                            dedup.lookupsAvoided.get(), Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private final class Deduplication {
+        // Rows of chunks handed to insertAll but not yet committed, which the table can't see.
+        // Checked before the table: a row missing from here is either new or already committed.
+        private final Set<Customer> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong lookups = new AtomicLong();
+        private final AtomicLong lookupsAvoided = new AtomicLong();
+
+        // Runs one chunk at a time (concatMap), so the filter needs no locking
+        Mono<List<Customer>> newCustomers(List<Customer> chunk, BloomFilter filter) {
+            Set<Customer> unique = new LinkedHashSet<>(chunk);
+            duplicates.addAndGet(chunk.size() - unique.size());
+
+            Set<Customer> seen = new HashSet<>();
+            List<Customer> candidates = new ArrayList<>();
+            for (Customer customer : unique) {
+                if (!filter.mightContain(key(customer))) {
+                    lookupsAvoided.incrementAndGet();
+                } else if (inFlight.contains(customer)) {
+                    seen.add(customer);
+                } else {
+                    candidates.add(customer);
+                }
+            }
+            lookups.addAndGet(candidates.size());
+
+            return repository.findExisting(candidates)
+                    .doOnNext(seen::add)
+                    .then(Mono.fromSupplier(() -> {
+                        duplicates.addAndGet(seen.size());
+                        List<Customer> fresh = unique.stream()
+                                .filter(customer -> !seen.contains(customer))
+                                .toList();
+                        fresh.forEach(customer -> filter.put(key(customer)));
+                        inFlight.addAll(fresh);
+                        return fresh;
+                    }));
+        }
+    }
+
+    private static String key(Customer customer) {
+        return customer.firstName() + '\u0000' + customer.lastName();
+    }
+
+    private Flux<Customer> customers(Resource resource) {
+        Flux<String> lines = lines(resource).filter(line -> !line.isBlank());
+        return switch (format(resource)) {
+            case CSV -> lines.skip(1).map(line -> read(csvReader, line));
+            case NDJSON -> lines.map(line -> read(jsonReader, line));
+        };
+    }
+
+    private enum Format {CSV, NDJSON}
+
+    private static Format format(Resource resource) {
+        String name = String.valueOf(resource.getFilename());
+        if (name.endsWith(".csv")) return Format.CSV;
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) return Format.NDJSON;
+        throw new IllegalArgumentException("Expected a .csv, .ndjson or .jsonl file: " + resource);
+    }
+
+    private static Flux<String> lines(Resource resource) {
+        return StringDecoder.textPlainOnly().decode(
+                DataBufferUtils.read(resource, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE),
+                ResolvableType.forClass(String.class), null, null);
+    }
+
+    private static Customer read(ObjectReader reader, String line) {
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
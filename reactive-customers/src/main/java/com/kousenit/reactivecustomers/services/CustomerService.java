@@ -0,0 +1,114 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kousenit.reactivecustomers.config.CacheProperties;
+import com.kousenit.reactivecustomers.dao.CustomerRepository;
+import com.kousenit.reactivecustomers.entities.Customer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Single-customer operations shared by the annotated controller and the functional handler.
+ * Lookups by id are read through a bounded cache. Creates populate it; updates and deletes
+ * invalidate it, since two updates to one id can finish in a different order than they committed.
+ * Concurrent misses for the same id share a single in-flight database query.
+ * Every successful write is also published as a {@link CustomerChange}.
+ */
+@Service
+public class CustomerService {
+    private final CustomerRepository repository;
+    private final AsyncCache<Long, Customer> cache;
+    private final Counter coalesced;
+    private final CustomerChangePublisher changes;
+
+    public CustomerService(CustomerRepository repository,
+                           CacheProperties cacheProperties,
+                           CustomerChangePublisher changes,
+                           MeterRegistry registry) {
+        this.repository = repository;
+        this.changes = changes;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.maximumSize())
+                .expireAfterWrite(cacheProperties.ttl())
+                .recordStats()
+                .buildAsync();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(registry, cache, "customers");
+        this.coalesced = Counter.builder("customers.lookup.coalesced")
+                .description("Lookups by id that joined a query already in flight for the same id")
+                .register(registry);
+    }
+
+    public Mono<Customer> findById(Long id) {
+        // Missing customers complete the future with null, which Caffeine does not store.
+        // Cancelling one subscriber must not cancel a load that others may share.
+        return Mono.fromFuture(() -> lookup(id), true);
+    }
+
+    private CompletableFuture<Customer> lookup(Long id) {
+        // Caffeine runs the loader at most once per key and hands every concurrent
+        // caller the same future, so a burst of requests for one id costs one query
+        var loaded = new boolean[1];
+        CompletableFuture<Customer> future = cache.get(id, (key, executor) -> {
+            loaded[0] = true;
+            return repository.findById(key).toFuture();
+        });
+        if (!loaded[0] && !future.isDone()) {
+            coalesced.increment();
+        }
+        return future;
+    }
+
+    public Flux<Customer> searchByLastName(String lastName, String firstName, int limit) {
+        return repository.searchByLastName(lastName, firstName, limit);
+    }
+
+    public Flux<Customer> searchByLastNamePrefix(String prefix, String firstName, int limit) {
+        String from = prefix.toUpperCase(Locale.ROOT);
+        return repository.searchByLastNameKeyRange(from, from + Character.MAX_VALUE, firstName, limit);
+    }
+
+    public Mono<Customer> create(Customer customer) {
+        return repository.save(customer)
+                .doOnNext(this::refresh)
+                .doOnNext(saved -> changes.publish(CustomerChange.created(saved)));
+    }
+
+    public Flux<Customer> createAll(Flux<Customer> customers, int chunkSize) {
+        return repository.insertAll(customers, chunkSize)
+                .doOnNext(saved -> changes.publish(CustomerChange.created(saved)));
+    }
+
+    public Mono<Customer> update(Long id, Customer customer) {
+        return repository.updateById(id, customer.firstName(), customer.lastName())
+                .filter(rowsUpdated -> rowsUpdated > 0)
+                .map(rowsUpdated -> new Customer(id, customer.firstName(), customer.lastName()))
+                .doOnNext(updated -> cache.synchronous().invalidate(id))
+                .doOnNext(updated -> changes.publish(CustomerChange.updated(updated)));
+    }
+
+    public Mono<Boolean> deleteById(Long id) {
+        return repository.removeById(id)
+                .map(rowsDeleted -> rowsDeleted > 0)
+                .doOnNext(deleted -> cache.synchronous().invalidate(id))
+                .doOnNext(deleted -> {
+                    if (deleted) changes.publish(CustomerChange.deleted(id));
+                });
+    }
+
+    public Flux<CustomerChange> changes() {
+        return changes.changes();
+    }
+
+    private void refresh(Customer customer) {
+        cache.put(customer.id(), CompletableFuture.completedFuture(customer));
+    }
+}
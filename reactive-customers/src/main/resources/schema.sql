@@ -1,7 +1,11 @@
 drop table if exists customer;
 create table customer
 (
-    id         long generated always as identity primary key,
-    first_name varchar(20) not null,
-    last_name  varchar(20) not null
-);
\ No newline at end of file
+    id            long generated always as identity primary key,
+    first_name    varchar(20) not null,
+    last_name     varchar(20) not null,
+    -- upper-cased copy of last_name so case-insensitive prefix searches can use an index
+    last_name_key varchar(20) generated always as (upper(last_name))
+);
+create index customer_last_name_idx on customer (last_name, first_name);
+create index customer_last_name_key_idx on customer (last_name_key);
\ No newline at end of file
@@ -5,14 +5,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.test.StepVerifier;
 
 import java.util.List;
 
+import static com.kousenit.reactivecustomers.config.CodecConfig.APPLICATION_SMILE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class CustomerControllerTest {
@@ -31,7 +36,8 @@ public class CustomerControllerTest {
                         CREATE TABLE customer(
                             id long generated always as identity primary key,
                             first_name VARCHAR(100) NOT NULL,
-                            last_name VARCHAR(100) NOT NULL
+                            last_name VARCHAR(100) NOT NULL,
+                            last_name_key VARCHAR(100) GENERATED ALWAYS AS (UPPER(last_name))
                         );
                         INSERT INTO customer (first_name, last_name) VALUES ('Malcolm', 'Reynolds');
                         INSERT INTO customer (first_name, last_name) VALUES ('Zoë', 'Washburne');
@@ -66,6 +72,77 @@ public class CustomerControllerTest {
                 .hasSize(5);
     }
 
+    @Test
+    void findAllPaged() {
+        List<Long> ids = getIds();
+        client.get()
+                .uri("/customers?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, link ->
+                        assertTrue(link.contains("after=%d".formatted(ids.get(1)))))
+                .expectBodyList(Customer.class)
+                .hasSize(2);
+
+        client.get()
+                .uri("/customers?after={after}&limit=2", ids.get(3))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.LINK)
+                .expectBodyList(Customer.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void streamNdjson() {
+        client.get()
+                .uri("/customers")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Customer.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextCount(5)
+                .verifyComplete();
+    }
+
+    @Test
+    void searchByLastName() {
+        client.get()
+                .uri("/customers/search?lastName=Washburne")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .hasSize(2);
+
+        client.get()
+                .uri("/customers/search?lastName=Washburne&firstName=Hoban")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void searchByPrefixIgnoresCase() {
+        client.get()
+                .uri("/customers/search?prefix=wash&limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void searchWithoutCriteria() {
+        client.get()
+                .uri("/customers/search")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     void findByIdExists() {
         getIds().forEach(id ->
@@ -77,6 +154,47 @@ public class CustomerControllerTest {
                         .value(customer -> assertEquals(id, customer.id())));
     }
 
+    @Test
+    void findByIdNotModified() {
+        Long id = getIds().get(0);
+        String eTag = client.get()
+                .uri("/customers/%d".formatted(id))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(Customer.class)
+                .getResponseHeaders()
+                .getETag();
+
+        client.get()
+                .uri("/customers/%d".formatted(id))
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void findByIdETagDiffersByFormat() {
+        Long id = getIds().get(0);
+        String eTag = client.get()
+                .uri("/customers/%d".formatted(id))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Customer.class)
+                .getResponseHeaders()
+                .getETag();
+
+        client.get()
+                .uri("/customers/%d".formatted(id))
+                .accept(MediaType.APPLICATION_CBOR)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR);
+    }
+
     @Test
     void findByIdNotFound() {
         client.get()
@@ -97,6 +215,52 @@ public class CustomerControllerTest {
                 .value(c -> assertEquals("Inara", c.firstName()));
     }
 
+    @Test
+    void createAll() {
+        var customers = List.of(
+                new Customer(null, "Inara", "Serra"),
+                new Customer(null, "Simon", "Tam"),
+                new Customer(null, "River", "Tam"));
+        client.post()
+                .uri("/customers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customers)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(Customer.class)
+                .hasSize(3)
+                .value(created -> created.forEach(c -> assertNotNull(c.id())));
+    }
+
+    @Test
+    void findAllCbor() {
+        client.get()
+                .uri("/customers")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBodyList(Customer.class)
+                .hasSize(5);
+    }
+
+    @Test
+    void createAllSmile() {
+        var customers = List.of(
+                new Customer(null, "Simon", "Tam"),
+                new Customer(null, "River", "Tam"));
+        client.post()
+                .uri("/customers/batch")
+                .contentType(APPLICATION_SMILE)
+                .accept(APPLICATION_SMILE)
+                .bodyValue(customers)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentType(APPLICATION_SMILE)
+                .expectBodyList(Customer.class)
+                .hasSize(2);
+    }
+
     @Test
     void delete() {
         getIds().forEach(id ->
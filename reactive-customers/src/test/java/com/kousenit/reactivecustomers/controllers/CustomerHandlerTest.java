@@ -7,14 +7,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.List;
 
+import static com.kousenit.reactivecustomers.config.CodecConfig.APPLICATION_SMILE;
+
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureWebTestClient
 class CustomerHandlerTest {
@@ -33,7 +37,8 @@ class CustomerHandlerTest {
                 CREATE TABLE customer(
                     id long generated always as identity primary key,
                     first_name VARCHAR(100) NOT NULL,
-                    last_name VARCHAR(100) NOT NULL
+                    last_name VARCHAR(100) NOT NULL,
+                    last_name_key VARCHAR(100) GENERATED ALWAYS AS (UPPER(last_name))
                 );
                 INSERT INTO customer (first_name, last_name) VALUES ('Malcolm', 'Reynolds');
                 INSERT INTO customer (first_name, last_name) VALUES ('Zoë', 'Washburne');
@@ -80,6 +85,27 @@ class CustomerHandlerTest {
                 .isEqualTo("Serra");
     }
 
+    @Test
+    void testCreateCustomersNdjson() {
+        client.post()
+                .uri("/functional/customers/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Flux.just(
+                        new Customer(null, "Inara", "Serra"),
+                        new Customer(null, "Simon", "Tam"),
+                        new Customer(null, "River", "Tam")), Customer.class)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody()
+                .jsonPath("$.length()")
+                .isEqualTo(3)
+                .jsonPath("$[2].id")
+                .isNotEmpty()
+                .jsonPath("$[2].firstName")
+                .isEqualTo("River");
+    }
+
     @Test
     void testGetAllCustomers() {
         client.get()
@@ -94,6 +120,142 @@ class CustomerHandlerTest {
                 .hasSize(5);
     }
 
+    @Test
+    void testGetAllCustomersCbor() {
+        client.get()
+                .uri("/functional/customers")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_CBOR)
+                .expectBodyList(Customer.class)
+                .hasSize(5);
+    }
+
+    @Test
+    void testCreateCustomerSmile() {
+        client.post()
+                .uri("/functional/customers")
+                .contentType(APPLICATION_SMILE)
+                .accept(APPLICATION_SMILE)
+                .bodyValue(new Customer(null, "Inara", "Serra"))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectHeader()
+                .contentType(APPLICATION_SMILE)
+                .expectBody(Customer.class)
+                .value(customer -> Assertions.assertThat(customer.id()).isNotNull());
+    }
+
+    @Test
+    void testGetCustomersPaged() {
+        List<Long> ids = getIds();
+        client.get()
+                .uri("/functional/customers?limit=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .value(HttpHeaders.LINK, link ->
+                        Assertions.assertThat(link).contains("after=" + ids.get(1)))
+                .expectBodyList(Customer.class)
+                .hasSize(2);
+
+        client.get()
+                .uri("/functional/customers?after={after}&limit=2", ids.get(3))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .doesNotExist(HttpHeaders.LINK)
+                .expectBodyList(Customer.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void testStreamCustomers() {
+        client.get()
+                .uri("/functional/customers")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(Customer.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextCount(5)
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchCustomersByPrefix() {
+        client.get()
+                .uri("/functional/customers/search?prefix=WASH&firstName=zoë")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.length()")
+                .isEqualTo(1)
+                .jsonPath("$[0].lastName")
+                .isEqualTo("Washburne");
+    }
+
+    @Test
+    void testGetCustomersNotModified() {
+        String eTag = client.get()
+                .uri("/functional/customers")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Customer.class)
+                .getResponseHeaders()
+                .getETag();
+        Assertions.assertThat(eTag).isNotNull();
+
+        client.get()
+                .uri("/functional/customers")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void testETagDiffersByFormat() {
+        String eTag = client.get()
+                .uri("/functional/customers")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Customer.class)
+                .getResponseHeaders()
+                .getETag();
+
+        client.get()
+                .uri("/functional/customers")
+                .accept(MediaType.APPLICATION_CBOR)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_CBOR);
+    }
+
     @Test
     void testGetSingleCustomer() {
         List<Long> ids = getIds();
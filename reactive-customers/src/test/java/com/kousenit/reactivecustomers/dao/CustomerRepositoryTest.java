@@ -58,6 +58,36 @@ class CustomerRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void searchCustomersByLastNamePrefix() {
+        repository.searchByLastNameKeyRange("WA", "WA" + Character.MAX_VALUE, null, 10)
+                .map(Customer::firstName)
+                .as(StepVerifier::create)
+                .expectNext("Hoban", "Zoë")
+                .verifyComplete();
+    }
+
+    @Test
+    void searchesMatchFirstNameIgnoringCase() {
+        repository.searchByLastName("Washburne", "hoban", 10)
+                .as(StepVerifier::create)
+                .expectNextMatches(customer -> customer.firstName().equals("Hoban"))
+                .verifyComplete();
+        repository.searchByLastNameKeyRange("WASH", "WASH" + Character.MAX_VALUE, "HOBAN", 10)
+                .as(StepVerifier::create)
+                .expectNextMatches(customer -> customer.firstName().equals("Hoban"))
+                .verifyComplete();
+    }
+
+    @Test
+    void fetchPageAfterId() {
+        repository.findPage(customers.get(1).id(), 2)
+                .map(Customer::id)
+                .as(StepVerifier::create)
+                .expectNext(customers.get(2).id(), customers.get(3).id())
+                .verifyComplete();
+    }
+
     @Test
     void insertCustomer() {
         Customer newCustomer = new Customer(null, "Inara", "Serra");
@@ -68,6 +98,39 @@ class CustomerRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void insertCustomersInChunks() {
+        var newCustomers = Flux.just(
+                new Customer(null, "Inara", "Serra"),
+                new Customer(null, "Simon", "Tam"),
+                new Customer(null, "River", "Tam"));
+        repository.insertAll(newCustomers, 2)
+                .as(StepVerifier::create)
+                .expectNextMatches(customer -> customer.id() != null && customer.firstName().equals("Inara"))
+                .expectNextMatches(customer -> customer.id() != null && customer.firstName().equals("Simon"))
+                .expectNextMatches(customer -> customer.id() != null && customer.firstName().equals("River"))
+                .verifyComplete();
+
+        repository.count()
+                .as(StepVerifier::create)
+                .expectNext(8L)
+                .verifyComplete();
+    }
+
+    @Test
+    void findExistingCustomersByName() {
+        var candidates = List.of(
+                new Customer(null, "Jayne", "Cobb"),
+                new Customer(null, "Jayne", "Reynolds"),
+                new Customer(null, "Hoban", "Washburne"));
+        repository.findExisting(candidates)
+                .map(Customer::firstName)
+                .collectList()
+                .as(StepVerifier::create)
+                .expectNextMatches(names -> names.size() == 2 && names.containsAll(List.of("Jayne", "Hoban")))
+                .verifyComplete();
+    }
+
     @Test
     void updateCustomer() {
         Customer updatedCustomer = new Customer(customers.get(0).id(), "Malcolm", "Reynolds, Jr.");
@@ -84,4 +147,30 @@ class CustomerRepositoryTest {
                 .as(StepVerifier::create)
                 .verifyComplete();
     }
+
+    @Test
+    void updateCustomerById() {
+        repository.updateById(customers.get(0).id(), "Malcolm", "Reynolds, Jr.")
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        repository.updateById(999L, "Nobody", "Home")
+                .as(StepVerifier::create)
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void removeCustomerById() {
+        repository.removeById(customers.get(0).id())
+                .as(StepVerifier::create)
+                .expectNext(1)
+                .verifyComplete();
+
+        repository.removeById(customers.get(0).id())
+                .as(StepVerifier::create)
+                .expectNext(0)
+                .verifyComplete();
+    }
 }
\ No newline at end of file
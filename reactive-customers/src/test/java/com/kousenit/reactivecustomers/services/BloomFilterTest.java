@@ -0,0 +1,29 @@
+package com.kousenit.reactivecustomers.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("customer" + i));
+
+        assertTrue(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("customer" + i)));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("customer" + i));
+
+        long falsePositives = IntStream.range(10_000, 110_000)
+                .filter(i -> filter.mightContain("customer" + i))
+                .count();
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
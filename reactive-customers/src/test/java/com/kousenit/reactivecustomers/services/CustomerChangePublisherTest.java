@@ -0,0 +1,33 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.kousenit.reactivecustomers.config.ChangeStreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CustomerChangePublisherTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void countsEventsDroppedForASlowSubscriber() {
+        var publisher = new CustomerChangePublisher(
+                new ChangeStreamProperties(2, ChangeStreamProperties.Overflow.DROP_OLDEST), registry);
+
+        StepVerifier.create(publisher.changes(), 0)
+                .then(() -> {
+                    for (long id = 1; id <= 5; id++) publisher.publish(CustomerChange.deleted(id));
+                })
+                .thenRequest(2)
+                .expectNextMatches(change -> change.id() == 4)
+                .expectNextMatches(change -> change.id() == 5)
+                .thenCancel()
+                .verify();
+
+        assertEquals(3, registry.get("customers.changes.dropped")
+                .tag("reason", "SUBSCRIBER_OVERFLOW")
+                .counter()
+                .count());
+    }
+}
@@ -0,0 +1,127 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kousenit.reactivecustomers.dao.CustomerRepository;
+import com.kousenit.reactivecustomers.entities.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.core.io.FileSystemResource;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest
+class CustomerLoaderTest {
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @TempDir
+    Path directory;
+
+    private CustomerLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new CustomerLoader(repository, new ObjectMapper());
+        repository.deleteAll().block();
+    }
+
+    private FileSystemResource write(String name, String content) throws IOException {
+        return new FileSystemResource(Files.writeString(directory.resolve(name), content));
+    }
+
+    @Test
+    void loadsCsvInChunks() throws IOException {
+        String rows = IntStream.range(0, 25)
+                .mapToObj(i -> "First%d,Last%d".formatted(i, i))
+                .collect(Collectors.joining("\n", "first_name,last_name\n", "\n"));
+
+        loader.load(write("customers.csv", rows), 10, 2)
+                .as(StepVerifier::create)
+                .expectNextMatches(report -> report.rows() == 25 && report.rowsPerSecond() > 0)
+                .verifyComplete();
+        assertEquals(25, repository.count().block());
+    }
+
+    @Test
+    void loadsQuotedCsvFields() throws IOException {
+        loader.load(write("customers.csv", "first_name,last_name\n\"Shepherd\",\"Book, Derrial\"\n"), 10, 1)
+                .block();
+
+        repository.findAll()
+                .as(StepVerifier::create)
+                .expectNextMatches(customer -> customer.lastName().equals("Book, Derrial"))
+                .verifyComplete();
+    }
+
+    @Test
+    void loadsNdjson() throws IOException {
+        String rows = """
+                {"firstName":"Inara","lastName":"Serra"}
+                {"firstName":"Simon","lastName":"Tam"}
+
+                {"firstName":"River","lastName":"Tam"}
+                """;
+
+        loader.load(write("customers.ndjson", rows), 2, 1)
+                .as(StepVerifier::create)
+                .expectNextMatches(report -> report.rows() == 3)
+                .verifyComplete();
+        repository.findByLastName("Tam")
+                .as(StepVerifier::create)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void skipsCustomersAlreadyInTheTableOrFile() throws IOException {
+        repository.saveAll(List.of(
+                        new Customer(null, "Malcolm", "Reynolds"),
+                        new Customer(null, "Jayne", "Cobb")))
+                .blockLast();
+        String rows = IntStream.range(0, 50)
+                .mapToObj(i -> "First%d,Last%d".formatted(i, i))
+                .collect(Collectors.joining("\n", "first_name,last_name\nMalcolm,Reynolds\n", "\nJayne,Cobb\nFirst3,Last3\n"));
+
+        loader.loadSkippingDuplicates(write("customers.csv", rows), 10, 2, 100, 0.01)
+                .as(StepVerifier::create)
+                .expectNextMatches(report -> report.rows() == 50
+                        && report.duplicates() == 3
+                        && report.lookups() + report.lookupsAvoided() <= 52
+                        && report.lookupsAvoided() >= 40)
+                .verifyComplete();
+        assertEquals(52, repository.count().block());
+    }
+
+    @Test
+    void duplicateCheckSurvivesFalsePositives() throws IOException {
+        String rows = IntStream.range(0, 200)
+                .mapToObj(i -> "First%d,Last%d".formatted(i % 150, i % 150))
+                .collect(Collectors.joining("\n", "first_name,last_name\n", "\n"));
+
+        // A filter far too small for the data: nearly every row is a hit, checked exactly
+        loader.loadSkippingDuplicates(write("customers.csv", rows), 16, 4, 1, 0.5)
+                .as(StepVerifier::create)
+                .expectNextMatches(report -> report.rows() == 150 && report.duplicates() == 50)
+                .verifyComplete();
+        assertEquals(150, repository.count().block());
+    }
+
+    @Test
+    void rejectsUnknownFormat() throws IOException {
+        loader.load(write("customers.txt", "Malcolm Reynolds"), 10, 1)
+                .as(StepVerifier::create)
+                .verifyError(IllegalArgumentException.class);
+    }
+}
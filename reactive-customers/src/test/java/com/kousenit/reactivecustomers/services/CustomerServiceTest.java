@@ -0,0 +1,140 @@
+package com.kousenit.reactivecustomers.services;
+
+import com.kousenit.reactivecustomers.config.CacheProperties;
+import com.kousenit.reactivecustomers.config.ChangeStreamProperties;
+import com.kousenit.reactivecustomers.dao.CustomerRepository;
+import com.kousenit.reactivecustomers.entities.Customer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class CustomerServiceTest {
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = repository.save(new Customer(null, "Inara", "Serra")).block();
+    }
+
+    private double cacheGets(String result) {
+        return registry.get("cache.gets")
+                .tag("cache", "customers")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        double misses = cacheGets("miss");
+        double hits = cacheGets("hit");
+
+        service.findById(customer.id())
+                .as(StepVerifier::create)
+                .expectNextMatches(c -> c.firstName().equals("Inara"))
+                .verifyComplete();
+        service.findById(customer.id())
+                .as(StepVerifier::create)
+                .expectNextMatches(c -> c.firstName().equals("Inara"))
+                .verifyComplete();
+
+        assertEquals(misses + 1, cacheGets("miss"));
+        assertEquals(hits + 1, cacheGets("hit"));
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() {
+        // The row arrives only after both lookups have subscribed, so the second must join the first
+        Sinks.One<Customer> row = Sinks.one();
+        CustomerRepository slowRepository = mock(CustomerRepository.class);
+        when(slowRepository.findById(42L)).thenReturn(row.asMono());
+        var meters = new SimpleMeterRegistry();
+        var coalescing = new CustomerService(slowRepository,
+                new CacheProperties(100, Duration.ofMinutes(5)),
+                new CustomerChangePublisher(new ChangeStreamProperties(16, ChangeStreamProperties.Overflow.DROP_OLDEST), meters),
+                meters);
+
+        Flux.merge(coalescing.findById(42L), coalescing.findById(42L))
+                .as(StepVerifier::create)
+                .then(() -> row.tryEmitValue(new Customer(42L, "Inara", "Serra")))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        verify(slowRepository, times(1)).findById(42L);
+        assertEquals(1, meters.get("customers.lookup.coalesced").counter().count());
+    }
+
+    @Test
+    void updateInvalidatesTheCache() {
+        service.findById(customer.id()).block();
+
+        service.update(customer.id(), new Customer(null, "Inara", "Serra-Reynolds"))
+                .as(StepVerifier::create)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        double misses = cacheGets("miss");
+        service.findById(customer.id())
+                .as(StepVerifier::create)
+                .expectNextMatches(c -> c.lastName().equals("Serra-Reynolds"))
+                .verifyComplete();
+        assertEquals(misses + 1, cacheGets("miss"));
+    }
+
+    @Test
+    void deleteInvalidatesTheCache() {
+        service.findById(customer.id()).block();
+
+        service.deleteById(customer.id())
+                .as(StepVerifier::create)
+                .expectNext(true)
+                .verifyComplete();
+
+        service.findById(customer.id())
+                .as(StepVerifier::create)
+                .verifyComplete();
+    }
+
+    @Test
+    void writesArePublishedAsChanges() {
+        service.changes()
+                .take(3)
+                .as(StepVerifier::create)
+                .then(() -> {
+                    Customer created = service.create(new Customer(null, "Simon", "Tam")).block();
+                    service.update(created.id(), new Customer(null, "Simon", "Tam, MD")).block();
+                    service.deleteById(created.id()).block();
+                })
+                .expectNextMatches(change -> change.type() == CustomerChange.Type.CREATED)
+                .expectNextMatches(change -> change.type() == CustomerChange.Type.UPDATED
+                        && change.customer().lastName().equals("Tam, MD"))
+                .expectNextMatches(change -> change.type() == CustomerChange.Type.DELETED
+                        && change.customer() == null)
+                .verifyComplete();
+    }
+}
@@ -1,20 +1,48 @@
 package com.kousenit.restclient.config;
 
 import com.kousenit.restclient.services.AstroInterface;
+import com.kousenit.restclient.services.AstroResponseCache;
+import com.kousenit.restclient.services.CachingAstroInterface;
+import com.kousenit.restclient.services.LastAstroResponse;
+import com.kousenit.restclient.services.UpstreamResilience;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.support.WebClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
 @Configuration
 public class AppConfig {
+    // The builders come from Spring Boot, so requests are also recorded as http.client.requests
 
     @Bean
-    public AstroInterface astroInterface() {
-        var webClient = WebClient.create("http://api.open-notify.org");
-        var adapter = WebClientAdapter.create(webClient);
+    public RestClient astroRestClient(RestClient.Builder builder,
+                                      ReactorClientHttpRequestFactory upstreamRequestFactory,
+                                      AstroApiProperties api) {
+        return builder.baseUrl(api.baseUrl())
+                .requestFactory(upstreamRequestFactory)
+                .build();
+    }
+
+    @Bean
+    public WebClient astroWebClient(WebClient.Builder builder,
+                                    ClientHttpConnector upstreamClientHttpConnector,
+                                    AstroApiProperties api) {
+        return builder.baseUrl(api.baseUrl())
+                .clientConnector(upstreamClientHttpConnector)
+                .build();
+    }
+
+    @Bean
+    public AstroInterface astroInterface(WebClient astroWebClient,
+                                         AstroResponseCache cache,
+                                         LastAstroResponse lastResponse,
+                                         UpstreamResilience resilience) {
+        var adapter = WebClientAdapter.create(astroWebClient);
         var factory = HttpServiceProxyFactory.builderFor(adapter).build();
-        return factory.createClient(AstroInterface.class);
+        return new CachingAstroInterface(factory.createClient(AstroInterface.class), cache, lastResponse, resilience);
     }
 }
@@ -0,0 +1,12 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Where the astronaut feed is fetched from. Point {@code astro.api.base-url} at an
+ * {@code AstroStub} to run against a local, controllable upstream.
+ */
+@ConfigurationProperties("astro.api")
+public record AstroApiProperties(@DefaultValue("http://api.open-notify.org") String baseUrl) {
+}
@@ -0,0 +1,15 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * How long a fetched {@code AstroResponse} is served as fresh, and for how long after
+ * that it may still be served while a single background refresh replaces it.
+ */
+@ConfigurationProperties("astro.cache")
+public record AstroCacheProperties(@DefaultValue("1h") Duration ttl,
+                                   @DefaultValue("24h") Duration staleWhileRevalidate) {
+}
@@ -0,0 +1,22 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds for the adaptive limit on concurrent blocking calls, and for the queue
+ * of callers waiting once that limit is reached. A call slower than
+ * {@code latencyTolerance} times the observed no-load latency, or one that fails,
+ * multiplies the limit by {@code backoffRatio}; fast calls grow it by one per window.
+ */
+@ConfigurationProperties("astro.limiter")
+public record AstroLimiterProperties(@DefaultValue("16") int initialLimit,
+                                     @DefaultValue("1") int minLimit,
+                                     @DefaultValue("256") int maxLimit,
+                                     @DefaultValue("64") int maxQueue,
+                                     @DefaultValue("50ms") Duration maxWait,
+                                     @DefaultValue("2.0") double latencyTolerance,
+                                     @DefaultValue("0.9") double backoffRatio) {
+}
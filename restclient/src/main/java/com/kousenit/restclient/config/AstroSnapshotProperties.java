@@ -0,0 +1,18 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties("astro.snapshot")
+public record AstroSnapshotProperties(@DefaultValue("snapshots") Path directory,
+                                      @DefaultValue("5") int retain) {
+
+    public AstroSnapshotProperties {
+        // Pruning keeps the newest `retain` files; zero would delete the snapshot just written
+        if (retain < 1) {
+            throw new IllegalArgumentException("astro.snapshot.retain must be at least 1, was " + retain);
+        }
+    }
+}
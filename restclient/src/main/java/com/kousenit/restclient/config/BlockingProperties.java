@@ -0,0 +1,18 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Selects the scheduler used wherever AstroService offloads blocking work.
+ */
+@ConfigurationProperties("astro.blocking")
+public record BlockingProperties(@DefaultValue("bounded-elastic") Mode mode) {
+
+    public enum Mode {
+        /** Reactor's bounded elastic pool: capped threads, excess tasks queue */
+        BOUNDED_ELASTIC,
+        /** A new virtual thread per task, so blocked tasks don't hold platform threads */
+        VIRTUAL_THREADS
+    }
+}
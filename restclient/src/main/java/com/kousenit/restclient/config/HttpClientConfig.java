@@ -0,0 +1,51 @@
+package com.kousenit.restclient.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One Reactor Netty connection pool, with its timeouts and DNS resolver, shared by every
+ * upstream client: RestClient, WebClient, and the HTTP interface proxy built on WebClient.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(UpstreamHttpProperties properties) {
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(properties.maxConnections())
+                .pendingAcquireMaxCount(properties.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.pendingAcquireTimeout())
+                .maxIdleTime(properties.maxIdleTime())
+                .maxLifeTime(properties.maxLifeTime())
+                .evictInBackground(properties.evictionInterval())
+                // Publishes reactor.netty.connection.provider.* gauges (active, idle, pending, total)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient upstreamHttpClient(ConnectionProvider upstreamConnectionProvider,
+                                         UpstreamHttpProperties properties) {
+        return HttpClient.create(upstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+                .responseTimeout(properties.responseTimeout())
+                .keepAlive(properties.keepAlive());
+    }
+
+    @Bean
+    public ClientHttpConnector upstreamClientHttpConnector(HttpClient upstreamHttpClient) {
+        return new ReactorClientHttpConnector(upstreamHttpClient);
+    }
+
+    @Bean
+    public ReactorClientHttpRequestFactory upstreamRequestFactory(HttpClient upstreamHttpClient) {
+        return new ReactorClientHttpRequestFactory(upstreamHttpClient);
+    }
+}
@@ -0,0 +1,29 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SchedulerConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(BlockingProperties properties) {
+        return create(properties.mode());
+    }
+
+    public static Scheduler create(BlockingProperties.Mode mode) {
+        return switch (mode) {
+            case BOUNDED_ELASTIC -> Schedulers.newBoundedElastic(
+                    Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                    Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                    "blocking");
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("blocking-virtual-", 0).factory()),
+                    "blocking-virtual");
+        };
+    }
+}
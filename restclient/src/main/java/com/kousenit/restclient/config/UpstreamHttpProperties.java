@@ -0,0 +1,18 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("upstream.http")
+public record UpstreamHttpProperties(@DefaultValue("50") int maxConnections,
+                                     @DefaultValue("500") int pendingAcquireMaxCount,
+                                     @DefaultValue("5s") Duration pendingAcquireTimeout,
+                                     @DefaultValue("30s") Duration maxIdleTime,
+                                     @DefaultValue("10m") Duration maxLifeTime,
+                                     @DefaultValue("30s") Duration evictionInterval,
+                                     @DefaultValue("2s") Duration connectTimeout,
+                                     @DefaultValue("10s") Duration responseTimeout,
+                                     @DefaultValue("true") boolean keepAlive) {
+}
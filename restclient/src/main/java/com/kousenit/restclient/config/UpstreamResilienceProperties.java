@@ -0,0 +1,31 @@
+package com.kousenit.restclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Timeout, hedging and retry settings for calls to the astronaut feed.
+ * <ul>
+ *     <li>each attempt is abandoned after {@code attemptTimeout}</li>
+ *     <li>a hedge (second attempt) fires once an attempt has outlived the observed
+ *     {@code hedgeQuantile} latency, clamped to [{@code hedgeMinDelay}, {@code hedgeMaxDelay}]</li>
+ *     <li>failed calls are retried with jittered exponential backoff</li>
+ *     <li>hedges and retries both spend tokens from a shared budget: every call earns
+ *     {@code budgetRatio} tokens, up to {@code budgetCapacity}</li>
+ * </ul>
+ */
+@ConfigurationProperties("upstream.resilience")
+public record UpstreamResilienceProperties(@DefaultValue("5s") Duration attemptTimeout,
+                                           @DefaultValue("true") boolean hedgeEnabled,
+                                           @DefaultValue("0.95") double hedgeQuantile,
+                                           @DefaultValue("20ms") Duration hedgeMinDelay,
+                                           @DefaultValue("2s") Duration hedgeMaxDelay,
+                                           @DefaultValue("2") int maxRetries,
+                                           @DefaultValue("100ms") Duration retryBackoff,
+                                           @DefaultValue("1s") Duration retryMaxBackoff,
+                                           @DefaultValue("0.5") double retryJitter,
+                                           @DefaultValue("0.1") double budgetRatio,
+                                           @DefaultValue("10") int budgetCapacity) {
+}
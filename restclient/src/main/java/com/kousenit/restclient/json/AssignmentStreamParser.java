@@ -0,0 +1,110 @@
+package com.kousenit.restclient.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emits each element of the {@code people} array in an astros.json body as soon as its
+ * closing brace arrives, using Jackson's non-blocking parser. Only the element currently
+ * being read is buffered, so memory use does not grow with the size of the document.
+ */
+public final class AssignmentStreamParser {
+    // Like Spring's codecs, tolerate fields that Assignment doesn't declare
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private AssignmentStreamParser() {}
+
+    public static Flux<Assignment> parse(Publisher<DataBuffer> body) {
+        return Flux.defer(() -> {
+            var parser = new Parser();
+            return Flux.from(body)
+                    .concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())));
+        });
+    }
+
+    private static class Parser {
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private int depth;
+        private boolean peopleFieldSeen;
+        private boolean inPeople;
+        private TokenBuffer element;
+
+        Parser() {
+            try {
+                parser = MAPPER.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<Assignment> feed(DataBuffer buffer) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                feeder.feedInput(bytes, 0, bytes.length);
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        List<Assignment> endOfInput() {
+            try {
+                feeder.endOfInput();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<Assignment> drain() throws IOException {
+            List<Assignment> assignments = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (token.isStructStart()) depth++;
+
+                if (element != null) {
+                    element.copyCurrentEvent(parser);
+                } else if (inPeople && token == JsonToken.START_OBJECT) {
+                    element = new TokenBuffer(parser);
+                    element.copyCurrentEvent(parser);
+                } else if (peopleFieldSeen && token == JsonToken.START_ARRAY) {
+                    inPeople = true;
+                } else if (depth == 1 && token == JsonToken.FIELD_NAME) {
+                    peopleFieldSeen = "people".equals(parser.currentName());
+                }
+
+                if (token.isStructEnd()) {
+                    depth--;
+                    if (element != null && depth == 2) {
+                        assignments.add(MAPPER.readValue(element.asParser(MAPPER), Assignment.class));
+                        element = null;
+                    } else if (inPeople && depth == 1) {
+                        inPeople = false;
+                        peopleFieldSeen = false;
+                    }
+                }
+            }
+            return assignments;
+        }
+    }
+}
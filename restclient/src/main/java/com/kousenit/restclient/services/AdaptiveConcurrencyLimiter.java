@@ -0,0 +1,185 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.config.AstroLimiterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps how many blocking calls {@link AstroService} runs at once, and adapts the cap
+ * to the latency those calls actually see (additive increase, multiplicative decrease).
+ * <ul>
+ *     <li>a call that fails, or takes longer than {@code latencyTolerance} times the
+ *     no-load latency, multiplies the limit by {@code backoffRatio}</li>
+ *     <li>fast calls while at least half the limit is in use grow it by one per window</li>
+ *     <li>callers over the limit wait in a bounded queue for at most {@code maxWait},
+ *     otherwise they fail fast with {@link LimitExceededException}</li>
+ * </ul>
+ * The no-load latency is learned per instance, so each kind of call gets its own limiter:
+ * sharing one between a fast and a slow operation would read every slow call as overload.
+ * Publishes {@code astro.limiter.limit}, {@code astro.limiter.in.flight},
+ * {@code astro.limiter.queued} and {@code astro.limiter.rejected} (tagged by reason),
+ * all tagged with the limiter's {@code operation}.
+ */
+public class AdaptiveConcurrencyLimiter {
+    // How fast the no-load latency estimate drifts up toward slower samples
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final AstroLimiterProperties properties;
+    private final LongSupplier nanoClock;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    // Guarded by this
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double baselineNanos = Double.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(String operation, AstroLimiterProperties properties, MeterRegistry registry) {
+        this(operation, properties, registry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String operation, AstroLimiterProperties properties, MeterRegistry registry,
+                               LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.limit = properties.initialLimit();
+        Gauge.builder("astro.limiter.limit", this, AdaptiveConcurrencyLimiter::currentLimit)
+                .tag("operation", operation).register(registry);
+        Gauge.builder("astro.limiter.in.flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .tag("operation", operation).register(registry);
+        Gauge.builder("astro.limiter.queued", this, AdaptiveConcurrencyLimiter::queued)
+                .tag("operation", operation).register(registry);
+        this.rejectedQueueFull = Counter.builder("astro.limiter.rejected")
+                .tags("operation", operation, "reason", "queue-full").register(registry);
+        this.rejectedTimeout = Counter.builder("astro.limiter.rejected")
+                .tags("operation", operation, "reason", "timeout").register(registry);
+    }
+
+    /** Runs {@code call} once a slot is free, holding the slot until it terminates. */
+    public <T> Mono<T> limit(Mono<T> call) {
+        return Mono.usingWhen(acquire(),
+                permit -> {
+                    permit.claim();
+                    return call;
+                },
+                permit -> Mono.fromRunnable(() -> permit.complete(false)),
+                (permit, error) -> Mono.fromRunnable(() -> permit.complete(true)),
+                permit -> Mono.fromRunnable(permit::cancel));
+    }
+
+    public synchronized double currentLimit() {
+        return limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.defer(() -> {
+            Waiter waiter;
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    return Mono.just(new Permit());
+                }
+                if (waiters.size() >= properties.maxQueue()) {
+                    rejectedQueueFull.increment();
+                    return Mono.error(new LimitExceededException(
+                            "Concurrency limit of " + (int) limit + " reached and wait queue is full"));
+                }
+                waiter = new Waiter();
+                waiters.add(waiter);
+            }
+            return waiter.sink.asMono()
+                    .doOnCancel(() -> abandon(waiter))
+                    .timeout(properties.maxWait(), Mono.defer(() -> {
+                        rejectedTimeout.increment();
+                        return Mono.error(new LimitExceededException(
+                                "No concurrency slot within " + properties.maxWait()));
+                    }));
+        });
+    }
+
+    private void abandon(Waiter waiter) {
+        synchronized (this) {
+            if (waiters.remove(waiter)) return;
+        }
+        // Granted a slot it will never use
+        waiter.permit.releaseUnclaimed();
+    }
+
+    private void release(long latencyNanos, boolean failed, boolean sample) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            if (sample) adjust(latencyNanos, failed);
+            inFlight--;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter next = waiters.poll();
+                next.permit = new Permit();
+                inFlight++;
+                granted.add(next);
+            }
+        }
+        granted.forEach(waiter -> waiter.sink.tryEmitValue(waiter.permit));
+    }
+
+    private void adjust(long latencyNanos, boolean failed) {
+        if (latencyNanos < baselineNanos) {
+            baselineNanos = latencyNanos;
+        } else {
+            baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+        if (failed || latencyNanos > baselineNanos * properties.latencyTolerance()) {
+            limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(properties.maxLimit(), limit + 1 / limit);
+        }
+    }
+
+    private static final class Waiter {
+        private final Sinks.One<Permit> sink = Sinks.one();
+        private Permit permit;
+    }
+
+    /** One slot. Released exactly once, whichever of completion, cancellation or abandonment comes first. */
+    private final class Permit {
+        private static final int GRANTED = 0;
+        private static final int CLAIMED = 1;
+        private static final int RELEASED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(GRANTED);
+        private long startNanos;
+
+        void claim() {
+            if (state.compareAndSet(GRANTED, CLAIMED)) startNanos = nanoClock.getAsLong();
+        }
+
+        void complete(boolean failed) {
+            if (state.compareAndSet(CLAIMED, RELEASED)) release(nanoClock.getAsLong() - startNanos, failed, true);
+        }
+
+        void cancel() {
+            if (state.compareAndSet(CLAIMED, RELEASED)) release(0, false, false);
+        }
+
+        void releaseUnclaimed() {
+            if (state.compareAndSet(GRANTED, RELEASED)) release(0, false, false);
+        }
+    }
+}
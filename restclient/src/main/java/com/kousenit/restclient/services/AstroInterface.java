@@ -1,10 +1,29 @@
 package com.kousenit.restclient.services;
 
+import com.kousenit.restclient.json.Assignment;
+import com.kousenit.restclient.json.AssignmentStreamParser;
 import com.kousenit.restclient.json.AstroResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface AstroInterface {
     @GetExchange("/astros.json")
     Mono<AstroResponse> getResponse();
+
+    // Conditional GET: pass If-None-Match / If-Modified-Since; a 304 comes back with no body
+    @GetExchange("/astros.json")
+    Mono<ResponseEntity<AstroResponse>> getResponseEntity(@RequestHeader HttpHeaders headers);
+
+    @GetExchange("/astros.json")
+    Flux<DataBuffer> getResponseBody();
+
+    // Default methods on HTTP interfaces are invoked directly, not turned into requests
+    default Flux<Assignment> getAssignments() {
+        return AssignmentStreamParser.parse(getResponseBody());
+    }
 }
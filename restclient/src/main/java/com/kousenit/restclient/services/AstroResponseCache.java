@@ -0,0 +1,80 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.config.AstroCacheProperties;
+import com.kousenit.restclient.json.AstroResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Shared cache for the astronaut feed, used by both {@link AstroService} and the
+ * {@link AstroInterface} client.
+ * <ul>
+ *     <li>fresh (younger than the TTL): served from memory</li>
+ *     <li>stale (within the stale-while-revalidate window): served from memory
+ *     while one background refresh runs</li>
+ *     <li>missing or expired: callers wait for a single shared upstream fetch</li>
+ * </ul>
+ */
+@Component
+public class AstroResponseCache {
+    private record Entry(AstroResponse response, Instant fetchedAt) {}
+
+    private final Duration ttl;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final AtomicReference<Entry> entry = new AtomicReference<>();
+    private final AtomicReference<Mono<AstroResponse>> inFlight = new AtomicReference<>();
+
+    @Autowired
+    public AstroResponseCache(AstroCacheProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    AstroResponseCache(AstroCacheProperties properties, Clock clock) {
+        this.ttl = properties.ttl();
+        this.maxAge = properties.ttl().plus(properties.staleWhileRevalidate());
+        this.clock = clock;
+    }
+
+    /**
+     * Seeds the cache with a response fetched earlier, e.g. one restored from disk.
+     * Ignored if a newer response is already cached.
+     */
+    public void prime(AstroResponse response, Instant fetchedAt) {
+        entry.accumulateAndGet(new Entry(response, fetchedAt), (current, primed) ->
+                current == null || current.fetchedAt().isBefore(primed.fetchedAt()) ? primed : current);
+    }
+
+    public Mono<AstroResponse> get(Supplier<Mono<AstroResponse>> loader) {
+        return Mono.defer(() -> {
+            Entry current = entry.get();
+            if (current != null) {
+                Duration age = Duration.between(current.fetchedAt(), clock.instant());
+                if (age.compareTo(ttl) < 0) {
+                    return Mono.just(current.response());
+                }
+                if (age.compareTo(maxAge) < 0) {
+                    // A failed background refresh leaves the stale entry; the next caller retries
+                    refresh(loader).onErrorResume(e -> Mono.empty()).subscribe();
+                    return Mono.just(current.response());
+                }
+            }
+            return refresh(loader);
+        });
+    }
+
+    private Mono<AstroResponse> refresh(Supplier<Mono<AstroResponse>> loader) {
+        return inFlight.updateAndGet(current -> current != null ? current :
+                loader.get()
+                        .doOnNext(response -> entry.set(new Entry(response, clock.instant())))
+                        .doFinally(signal -> inFlight.set(null))
+                        .cache());
+    }
+}
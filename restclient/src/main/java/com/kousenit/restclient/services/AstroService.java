@@ -1,77 +1,134 @@
 package com.kousenit.restclient.services;
 
+import com.kousenit.restclient.config.AstroLimiterProperties;
+import com.kousenit.restclient.json.Assignment;
+import com.kousenit.restclient.json.AssignmentStreamParser;
 import com.kousenit.restclient.json.AstroResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 @Service
 public class AstroService {
+    // Timer (with percentile histogram) and in-flight gauge for each service call
+    private static final String OBSERVATION_NAME = "astro.service";
 
     private final RestClient restClient;
     private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+    private final AstroResponseCache responseCache;
+    private final LastAstroResponse lastResponse;
+    private final AstroSnapshotStore snapshotStore;
+    private final Scheduler blockingScheduler;
+    // One per operation: each learns the no-load latency of its own calls
+    private final AdaptiveConcurrencyLimiter fetchLimiter;
+    private final AdaptiveConcurrencyLimiter legacyLimiter;
+    private final UpstreamResilience resilience;
 
-    public AstroService() {
-        this.restClient = RestClient.create("http://api.open-notify.org");
-        this.webClient = WebClient.create("http://api.open-notify.org");
-        this.objectMapper = new ObjectMapper();
+    public AstroService(RestClient astroRestClient,
+                        WebClient astroWebClient,
+                        ObservationRegistry observationRegistry,
+                        AstroResponseCache responseCache,
+                        LastAstroResponse lastResponse,
+                        AstroSnapshotStore snapshotStore,
+                        Scheduler blockingScheduler,
+                        AstroLimiterProperties limiterProperties,
+                        MeterRegistry meterRegistry,
+                        UpstreamResilience resilience) {
+        this.restClient = astroRestClient;
+        this.webClient = astroWebClient;
+        this.observationRegistry = observationRegistry;
+        this.responseCache = responseCache;
+        this.lastResponse = lastResponse;
+        this.snapshotStore = snapshotStore;
+        this.blockingScheduler = blockingScheduler;
+        this.fetchLimiter = new AdaptiveConcurrencyLimiter("getAstroResponseSync", limiterProperties, meterRegistry);
+        this.legacyLimiter = new AdaptiveConcurrencyLimiter("callLegacyBlockingService", limiterProperties, meterRegistry);
+        this.resilience = resilience;
     }
 
     public String getPeopleInSpace() {
-        return restClient.get()
-                .uri("/astros.json")
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .body(String.class);
+        return observe("getPeopleInSpace").observe(() ->
+                restClient.get()
+                        .uri("/astros.json")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .body(String.class));
     }
 
     public AstroResponse getAstroResponseSync() {
-        return restClient.get()
-                .uri("/astros.json")
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .body(AstroResponse.class);
+        // Only a cache miss makes the blocking RestClient call, on a thread meant for it
+        return observe("getAstroResponseSync").observe(() ->
+                responseCache.get(() -> fetchLimiter.limit(Mono.fromCallable(() ->
+                                                restClient.get()
+                                                        .uri("/astros.json")
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .headers(lastResponse::addConditionalHeaders)
+                                                        .retrieve()
+                                                        .toEntity(AstroResponse.class))
+                                        .map(lastResponse::resolve)
+                                        .subscribeOn(blockingScheduler)))
+                        .block());
     }
 
     public Mono<AstroResponse> getAstroResponseAsync() {
-        return webClient.get()
+        return responseCache.get(() ->
+                        resilience.call(() -> webClient.get()
+                                        .uri("/astros.json")
+                                        .accept(MediaType.APPLICATION_JSON)
+                                        .headers(lastResponse::addConditionalHeaders)
+                                        .retrieve()
+                                        .toEntity(AstroResponse.class))
+                                .map(lastResponse::resolve))
+                .name(OBSERVATION_NAME)
+                .tag("method", "getAstroResponseAsync")
+                .tap(Micrometer.observation(observationRegistry));
+    }
+
+    /**
+     * Emits each astronaut as soon as its part of the response body has arrived,
+     * without materializing the whole document. Suited to large rosters.
+     */
+    public Flux<Assignment> streamAssignments() {
+        Flux<DataBuffer> body = webClient.get()
                 .uri("/astros.json")
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(AstroResponse.class)
-                .log();
+                .bodyToFlux(DataBuffer.class);
+        return AssignmentStreamParser.parse(body)
+                .name(OBSERVATION_NAME)
+                .tag("method", "streamAssignments")
+                .tap(Micrometer.observation(observationRegistry));
+    }
+
+    private Observation observe(String method) {
+        return Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .lowCardinalityKeyValue("method", method);
     }
 
     // Scheduler Examples
 
     /**
-     * Demonstrates using publishOn with boundedElastic scheduler for file I/O.
-     * The blocking file write operation is moved to a thread pool designed for blocking operations.
+     * Saves the current feed as a snapshot file without blocking the event loop.
+     * The store encodes into pooled buffers, writes through an AsynchronousFileChannel,
+     * and commits with an atomic rename, so only its short filesystem calls need the blocking scheduler.
      */
     public Mono<String> saveAstronautsToFile() {
         return getAstroResponseAsync()
                 .doOnNext(response -> System.out.println("Fetched data on: " + Thread.currentThread().getName()))
-                .publishOn(Schedulers.boundedElastic())  // Switch to I/O thread pool
-                .<String>handle((response, sink) -> {
-                    System.out.println("Writing file on: " + Thread.currentThread().getName());
-                    try {
-                        Path file = Paths.get("astronauts.json");
-                        String jsonString = objectMapper.writeValueAsString(response);
-                        Files.writeString(file, jsonString);
-                        sink.next("File written with " + response.number() + " astronauts");
-                    } catch (Exception e) {
-                        sink.error(new RuntimeException("Failed to write file", e));
-                    }
-                })
+                .flatMap(response -> snapshotStore.save(response)
+                        .doOnNext(path -> System.out.println("Wrote " + path + " on: " + Thread.currentThread().getName()))
+                        .thenReturn("File written with " + response.number() + " astronauts"))
                 .doOnNext(result -> System.out.println("File operation completed on: " + Thread.currentThread().getName()));
     }
 
@@ -105,9 +162,11 @@ public class AstroService {
     /**
      * Simulates calling a legacy blocking service and properly handling it with schedulers.
      * This pattern is common when integrating reactive code with existing blocking APIs.
+     * The adaptive limiter sheds calls with {@link LimitExceededException} once the
+     * blocking service slows down, instead of queueing them without bound.
      */
     public Mono<String> callLegacyBlockingService(String input) {
-        return Mono.fromCallable(() -> {
+        return legacyLimiter.limit(Mono.fromCallable(() -> {
                     System.out.println("Calling blocking service on: " + Thread.currentThread().getName());
                     // Simulate blocking operation (e.g., database call, file I/O, HTTP call)
                     try {
@@ -118,7 +177,7 @@ public class AstroService {
                     }
                     return "Blocking result for: " + input;
                 })
-                .subscribeOn(Schedulers.boundedElastic())  // Execute blocking work on appropriate thread pool
+                .subscribeOn(blockingScheduler))  // Execute blocking work on appropriate thread pool
                 .doOnNext(result -> System.out.println("Received result on: " + Thread.currentThread().getName()));
     }
 
@@ -132,7 +191,7 @@ public class AstroService {
                 .flatMap(response -> 
                     callLegacyBlockingService("Processing " + response.number() + " astronauts")
                 )
-                .publishOn(Schedulers.boundedElastic())
+                .publishOn(blockingScheduler)
                 .map(result -> {
                     System.out.println("Final processing on: " + Thread.currentThread().getName());
                     return result + " - Processing complete";
@@ -201,7 +260,7 @@ public class AstroService {
                 System.out.println("2. Transform: " + Thread.currentThread().getName());
                 return result + "-transformed";
             })
-            .publishOn(Schedulers.boundedElastic())  // Switch to I/O scheduler
+            .publishOn(blockingScheduler)  // Switch to I/O scheduler
             .map(data -> {
                 System.out.println("3. Simulated I/O: " + Thread.currentThread().getName());
                 // Simulate blocking I/O
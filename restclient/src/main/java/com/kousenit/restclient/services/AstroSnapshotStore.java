@@ -0,0 +1,205 @@
+package com.kousenit.restclient.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.kousenit.restclient.config.AstroSnapshotProperties;
+import com.kousenit.restclient.json.AstroResponse;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps timestamped JSON snapshots of the astronaut feed on disk.
+ * <ul>
+ *     <li>Jackson writes the response straight into a pooled Netty buffer, with no
+ *     intermediate {@code byte[]} copy of the document</li>
+ *     <li>buffers are written to a temp file through an {@link AsynchronousFileChannel},
+ *     forced to disk, then atomically renamed, so readers never see a torn file</li>
+ *     <li>only the newest {@code astro.snapshot.retain} snapshots are kept</li>
+ *     <li>on startup the newest readable snapshot is read through a memory-mapped buffer
+ *     and used to prime {@link AstroResponseCache}; unreadable ones are skipped, and temp
+ *     files left by a process that died mid-write are removed</li>
+ * </ul>
+ */
+@Component
+public class AstroSnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(AstroSnapshotStore.class);
+    private static final String PREFIX = "astronauts-";
+    private static final String SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final AstroSnapshotProperties properties;
+    private final ObjectMapper objectMapper;
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final AstroResponseCache cache;
+    private final Scheduler blockingScheduler;
+
+    public AstroSnapshotStore(AstroSnapshotProperties properties, ObjectMapper objectMapper,
+                              AstroResponseCache cache, Scheduler blockingScheduler) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /** Writes a new snapshot and returns its path once it has been committed. */
+    public Mono<Path> save(AstroResponse response) {
+        Instant now = Instant.now();
+        Path directory = properties.directory();
+        Path target = directory.resolve(PREFIX + TIMESTAMP.format(now) + SUFFIX);
+
+        Mono<DataBuffer> json = Mono.fromCallable(() -> encode(response));
+
+        return Mono.fromCallable(() -> {
+                    Files.createDirectories(directory);
+                    return Files.createTempFile(directory, PREFIX, TEMP_SUFFIX);
+                })
+                .subscribeOn(blockingScheduler)
+                .flatMap(temp -> writeAndForce(json, temp)
+                        .then(Mono.fromCallable(() -> commit(temp, target))
+                                .subscribeOn(blockingScheduler))
+                        .onErrorResume(e -> Mono.fromCallable(() -> Files.deleteIfExists(temp))
+                                .subscribeOn(blockingScheduler)
+                                .then(Mono.error(e))));
+    }
+
+    private DataBuffer encode(AstroResponse response) throws IOException {
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        try (OutputStream out = buffer.asOutputStream()) {
+            objectMapper.writeValue(out, response);
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    private Mono<Void> writeAndForce(Mono<DataBuffer> json, Path temp) {
+        return Mono.using(
+                () -> AsynchronousFileChannel.open(temp, StandardOpenOption.WRITE),
+                channel -> DataBufferUtils.write(json, channel)
+                        .map(DataBufferUtils::release)
+                        .then(Mono.fromRunnable(() -> force(channel))),
+                channel -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static void force(AsynchronousFileChannel channel) {
+        try {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path commit(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        List<Path> snapshots = snapshots();
+        for (Path old : snapshots.subList(0, Math.max(0, snapshots.size() - properties.retain()))) {
+            Files.deleteIfExists(old);
+        }
+        return target;
+    }
+
+    /** Snapshot files, oldest first. The timestamp format sorts chronologically by name. */
+    public List<Path> snapshots() throws IOException {
+        if (!Files.isDirectory(properties.directory())) return List.of();
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public Optional<AstroResponse> loadLatest() throws IOException {
+        List<Path> snapshots = snapshots();
+        if (snapshots.isEmpty()) return Optional.empty();
+        return Optional.of(load(snapshots.get(snapshots.size() - 1)));
+    }
+
+    private AstroResponse load(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return objectMapper.readValue(new ByteBufferBackedInputStream(buffer), AstroResponse.class);
+        }
+    }
+
+    /**
+     * Primes the cache from the newest snapshot that can be read, falling back to older ones.
+     * A corrupt or unreadable snapshot directory leaves the cache empty; it never fails startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void primeCacheFromLatestSnapshot() {
+        List<Path> snapshots;
+        try {
+            deleteAbandonedTempFiles();
+            snapshots = snapshots();
+        } catch (IOException e) {
+            log.warn("Cannot read snapshot directory {}; starting with an empty cache", properties.directory(), e);
+            return;
+        }
+        for (Path snapshot : snapshots.reversed()) {
+            try {
+                String name = snapshot.getFileName().toString();
+                Instant takenAt = TIMESTAMP.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()), Instant::from);
+                cache.prime(load(snapshot), takenAt);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping unreadable snapshot {}", snapshot, e);
+            }
+        }
+    }
+
+    // Only files older than this JVM: a save already running must keep its temp file
+    private void deleteAbandonedTempFiles() throws IOException {
+        if (!Files.isDirectory(properties.directory())) return;
+        FileTime started = FileTime.fromMillis(ManagementFactory.getRuntimeMXBean().getStartTime());
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(TEMP_SUFFIX)
+                        && Files.getLastModifiedTime(file).compareTo(started) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
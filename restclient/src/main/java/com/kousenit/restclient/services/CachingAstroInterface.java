@@ -0,0 +1,49 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.json.AstroResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves {@link AstroInterface#getResponse()} through the shared {@link AstroResponseCache},
+ * falling back to a conditional GET through the generated HTTP interface client on a miss.
+ * That GET is hedged and retried by {@link UpstreamResilience}.
+ * Streaming reads are not cached and always go upstream.
+ */
+public class CachingAstroInterface implements AstroInterface {
+    private final AstroInterface delegate;
+    private final AstroResponseCache cache;
+    private final LastAstroResponse lastResponse;
+    private final UpstreamResilience resilience;
+
+    public CachingAstroInterface(AstroInterface delegate, AstroResponseCache cache,
+                                 LastAstroResponse lastResponse, UpstreamResilience resilience) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.lastResponse = lastResponse;
+        this.resilience = resilience;
+    }
+
+    @Override
+    public Mono<AstroResponse> getResponse() {
+        return cache.get(() -> resilience.call(() -> {
+                    var headers = new HttpHeaders();
+                    lastResponse.addConditionalHeaders(headers);
+                    return getResponseEntity(headers);
+                })
+                .map(lastResponse::resolve));
+    }
+
+    @Override
+    public Mono<ResponseEntity<AstroResponse>> getResponseEntity(HttpHeaders headers) {
+        return delegate.getResponseEntity(headers);
+    }
+
+    @Override
+    public Flux<DataBuffer> getResponseBody() {
+        return delegate.getResponseBody();
+    }
+}
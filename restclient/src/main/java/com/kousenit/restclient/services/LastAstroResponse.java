@@ -0,0 +1,50 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.json.AstroResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Remembers the last decoded {@link AstroResponse} together with the upstream's ETag and
+ * Last-Modified validators, so every client can send conditional GETs and turn a
+ * 304 Not Modified back into that response.
+ */
+@Component
+public class LastAstroResponse {
+    private record Snapshot(AstroResponse response, String eTag, long lastModified) {}
+
+    private final AtomicReference<Snapshot> last = new AtomicReference<>();
+
+    public void addConditionalHeaders(HttpHeaders headers) {
+        Snapshot snapshot = last.get();
+        if (snapshot == null) return;
+        if (snapshot.eTag() != null) headers.setIfNoneMatch(snapshot.eTag());
+        if (snapshot.lastModified() >= 0) headers.setIfModifiedSince(snapshot.lastModified());
+    }
+
+    /**
+     * The response a fetch stands for: its body, or the remembered response for a 304.
+     * Never null, so it is safe in {@code map}: a 304 with nothing remembered, or a 2xx
+     * without a body, fails with {@link IllegalStateException}.
+     */
+    public AstroResponse resolve(ResponseEntity<AstroResponse> entity) {
+        Snapshot snapshot = last.get();
+        if (entity.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            if (snapshot == null) {
+                throw new IllegalStateException("Upstream answered 304 Not Modified, but no earlier response is known");
+            }
+            return snapshot.response();
+        }
+        AstroResponse response = entity.getBody();
+        if (response == null) {
+            throw new IllegalStateException("Upstream answered " + entity.getStatusCode() + " without a body");
+        }
+        HttpHeaders headers = entity.getHeaders();
+        last.set(new Snapshot(response, headers.getETag(), headers.getLastModified()));
+        return response;
+    }
+}
@@ -0,0 +1,10 @@
+package com.kousenit.restclient.services;
+
+/**
+ * Signals that {@link AdaptiveConcurrencyLimiter} shed a call instead of running it.
+ */
+public class LimitExceededException extends RuntimeException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.config.UpstreamResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the tail latency of upstream calls. Each attempt gets a timeout, a slow attempt
+ * is hedged by a second one after the observed p95 (by default), and failures are retried
+ * with jitter. Hedges and retries draw on one global budget that only grows with
+ * traffic, so during an outage they cannot multiply the load on the upstream.
+ * <p>
+ * Publishes {@code astro.upstream.hedges}, {@code astro.upstream.retries},
+ * {@code astro.upstream.budget.exhausted} and {@code astro.upstream.hedge.delay}.
+ */
+@Component
+public class UpstreamResilience {
+    // Hedging starts once this many latencies have been seen
+    private static final int MIN_SAMPLES = 20;
+
+    private final UpstreamResilienceProperties properties;
+    private final LatencyWindow latencies = new LatencyWindow(256);
+    private final RetryBudget budget;
+    private final Counter hedges;
+    private final Counter retries;
+    private final Counter budgetExhausted;
+
+    public UpstreamResilience(UpstreamResilienceProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.budget = new RetryBudget(properties.budgetRatio(), properties.budgetCapacity());
+        this.hedges = registry.counter("astro.upstream.hedges");
+        this.retries = registry.counter("astro.upstream.retries");
+        this.budgetExhausted = registry.counter("astro.upstream.budget.exhausted");
+        Gauge.builder("astro.upstream.hedge.delay", this, resilience -> {
+                    Duration delay = resilience.hedgeDelay();
+                    return delay == null ? Double.NaN : delay.toNanos() / 1e6;
+                })
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /** Runs {@code attempt} with timeout, hedging and budgeted retries; it is called once per attempt. */
+    public <T> Mono<T> call(Supplier<Mono<T>> attempt) {
+        Mono<T> withRetries = Mono.defer(() -> hedged(attempt))
+                .retryWhen(Retry.backoff(properties.maxRetries(), properties.retryBackoff())
+                        .maxBackoff(properties.retryMaxBackoff())
+                        .jitter(properties.retryJitter())
+                        .filter(error -> isRetryable(error) && spend())
+                        .doBeforeRetry(signal -> retries.increment())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        return Mono.defer(() -> {
+            budget.deposit();
+            return withRetries;
+        });
+    }
+
+    private <T> Mono<T> hedged(Supplier<Mono<T>> attempt) {
+        Mono<T> primary = timed(attempt.get());
+        Duration delay = hedgeDelay();
+        if (delay == null) return primary;
+
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Sinks.One<Boolean> primaryFailed = Sinks.one();
+        Mono<T> hedge = Mono.delay(delay)
+                .takeUntilOther(primaryFailed.asMono())
+                .filter(tick -> spend())
+                .doOnNext(tick -> hedges.increment())
+                .flatMap(tick -> timed(attempt.get()));
+
+        return Mono.firstWithValue(
+                        primary.doOnError(error -> {
+                            primaryError.set(error);
+                            primaryFailed.tryEmitValue(true);
+                        }),
+                        hedge)
+                // Neither attempt produced a value: report the primary's failure, not the aggregate
+                .onErrorMap(NoSuchElementException.class,
+                        error -> primaryError.get() != null ? primaryError.get() : error);
+    }
+
+    private <T> Mono<T> timed(Mono<T> attempt) {
+        return attempt.timeout(properties.attemptTimeout())
+                .elapsed()
+                .doOnNext(timed -> latencies.record(timed.getT1()))
+                .map(timed -> timed.getT2());
+    }
+
+    Duration hedgeDelay() {
+        if (!properties.hedgeEnabled() || latencies.count() < MIN_SAMPLES) return null;
+        Duration observed = Duration.ofMillis(latencies.percentile(properties.hedgeQuantile()));
+        if (observed.compareTo(properties.hedgeMinDelay()) < 0) return properties.hedgeMinDelay();
+        if (observed.compareTo(properties.hedgeMaxDelay()) > 0) return properties.hedgeMaxDelay();
+        return observed;
+    }
+
+    private boolean spend() {
+        if (budget.withdraw()) return true;
+        budgetExhausted.increment();
+        return false;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    /** Token bucket: each call adds {@code ratio} tokens up to {@code capacity}, each hedge or retry takes one. */
+    private static final class RetryBudget {
+        private final double ratio;
+        private final double capacity;
+        private double tokens;
+
+        RetryBudget(double ratio, int capacity) {
+            this.ratio = ratio;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(capacity, tokens + ratio);
+        }
+
+        synchronized boolean withdraw() {
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+    }
+
+    /** The most recent successful attempt latencies, in milliseconds. */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized long percentile(double quantile) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(quantile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+}
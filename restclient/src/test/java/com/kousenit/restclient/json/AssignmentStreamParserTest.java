@@ -0,0 +1,46 @@
+package com.kousenit.restclient.json;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+class AssignmentStreamParserTest {
+    private static final String JSON = """
+            {"message":"success","number":3,"people":[
+              {"name":"Oleg Kononenko","craft":"ISS"},
+              {"name":"Sunita Williams","craft":"ISS","extra":{"people":[1,2]}},
+              {"name":"Li Cong","craft":"Tiangong"}]}
+            """;
+
+    private static Flux<DataBuffer> chunks(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        Arrays.copyOfRange(bytes, i * chunkSize, Math.min(bytes.length, (i + 1) * chunkSize))));
+    }
+
+    @Test
+    void parsesAssignmentsSplitAcrossBuffers() {
+        AssignmentStreamParser.parse(chunks(JSON, 7))
+                .as(StepVerifier::create)
+                .expectNext(new Assignment("Oleg Kononenko", "ISS"))
+                .expectNext(new Assignment("Sunita Williams", "ISS"))
+                .expectNext(new Assignment("Li Cong", "Tiangong"))
+                .verifyComplete();
+    }
+
+    @Test
+    void emitsAssignmentsBeforeTheDocumentEnds() {
+        String firstHalf = JSON.substring(0, JSON.indexOf("{\"name\":\"Li Cong\""));
+        AssignmentStreamParser.parse(Flux.concat(chunks(firstHalf, 16), Flux.never()))
+                .as(StepVerifier::create)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+}
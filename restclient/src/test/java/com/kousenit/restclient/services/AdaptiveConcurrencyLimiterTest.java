@@ -0,0 +1,111 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.config.AstroLimiterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueue, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter("test",
+                new AstroLimiterProperties(initialLimit, 1, 100, maxQueue, maxWait, 2.0, 0.5),
+                registry, nanos::get);
+    }
+
+    private Mono<String> taking(Duration latency) {
+        return Mono.fromCallable(() -> {
+            nanos.addAndGet(latency.toNanos());
+            return "done";
+        });
+    }
+
+    private double rejected(String reason) {
+        return registry.counter("astro.limiter.rejected", "operation", "test", "reason", reason).count();
+    }
+
+    @Test
+    void queuedCallRunsOnceSlotIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        Sinks.One<String> first = Sinks.one();
+        Disposable running = limiter.limit(first.asMono()).subscribe();
+
+        StepVerifier.create(limiter.limit(Mono.just("second")))
+                .then(() -> assertEquals(1, limiter.queued()))
+                .then(() -> first.tryEmitValue("first"))
+                .expectNext("second")
+                .verifyComplete();
+        assertEquals(0, limiter.inFlight());
+        running.dispose();
+    }
+
+    @Test
+    void rejectsFastWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        Disposable running = limiter.limit(Mono.never()).subscribe();
+        Disposable queued = limiter.limit(Mono.never()).subscribe();
+
+        StepVerifier.create(limiter.limit(Mono.just("shed")))
+                .verifyError(LimitExceededException.class);
+        assertEquals(1, rejected("queue-full"));
+
+        queued.dispose();
+        running.dispose();
+        assertEquals(0, limiter.queued());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void rejectsQueuedCallAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofMillis(20));
+        Disposable running = limiter.limit(Mono.never()).subscribe();
+
+        StepVerifier.create(limiter.limit(Mono.just("late")))
+                .verifyError(LimitExceededException.class);
+        assertEquals(1, rejected("timeout"));
+        assertEquals(0, limiter.queued());
+
+        running.dispose();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void slowAndFailedCallsShrinkLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 0, Duration.ZERO);
+
+        limiter.limit(taking(Duration.ofMillis(1))).block();
+        assertEquals(10, limiter.currentLimit());
+
+        limiter.limit(taking(Duration.ofMillis(50))).block();
+        assertEquals(5, limiter.currentLimit());
+
+        StepVerifier.create(limiter.limit(Mono.error(new IllegalStateException())))
+                .verifyError(IllegalStateException.class);
+        assertEquals(2.5, limiter.currentLimit());
+    }
+
+    @Test
+    void fastCallsGrowLimitWhileItIsInUse() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 0, Duration.ZERO);
+        Disposable running = limiter.limit(Mono.never()).subscribe();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.limit(taking(Duration.ofMillis(1))).block();
+        }
+        assertTrue(limiter.currentLimit() > 2);
+        assertEquals(limiter.currentLimit(), registry.get("astro.limiter.limit").gauge().value());
+
+        running.dispose();
+    }
+}
@@ -1,16 +1,42 @@
 package com.kousenit.restclient.services;
 
+import com.kousenit.restclient.stub.AstroStub;
+import com.kousenit.restclient.stub.StubBehavior;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class AstroInterfaceTest {
+    // Served from astronauts.json, so the tests don't depend on api.open-notify.org
+    private static AstroStub stub;
+
+    // Keeps snapshots out of the source tree, where a later run would prime the cache from them
+    @TempDir
+    static Path snapshotDirectory;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        stub = AstroStub.start(StubBehavior.defaults());
+        registry.add("astro.api.base-url", stub::baseUrl);
+        registry.add("astro.snapshot.directory", () -> snapshotDirectory.toString());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
 
     @Test
     void astroInterfaceTest(@Autowired AstroInterface astroInterface) {
@@ -26,4 +52,16 @@ class AstroInterfaceTest {
                 .verify(Duration.ofSeconds(10));  // Allow more time for network call
     }
 
+    @Test
+    void astroInterfaceAssignments(@Autowired AstroInterface astroInterface) {
+        StepVerifier.create(astroInterface.getAssignments())
+                .thenConsumeWhile(assignment -> {
+                    assertNotNull(assignment.name());
+                    System.out.println(assignment);
+                    return true;
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.config.AstroCacheProperties;
+import com.kousenit.restclient.json.AstroResponse;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AstroResponseCacheTest {
+    private final MutableClock clock = new MutableClock();
+    private final AstroResponseCache cache = new AstroResponseCache(
+            new AstroCacheProperties(Duration.ofMinutes(10), Duration.ofMinutes(5)), clock);
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private Mono<AstroResponse> fetch() {
+        return Mono.fromSupplier(() -> response(fetches.incrementAndGet()));
+    }
+
+    private static AstroResponse response(int number) {
+        return new AstroResponse("success", number, List.of());
+    }
+
+    @Test
+    void freshEntryIsServedWithoutFetching() {
+        cache.get(this::fetch).block();
+        clock.advance(Duration.ofMinutes(9));
+
+        cache.get(this::fetch)
+                .as(StepVerifier::create)
+                .expectNextMatches(response -> response.number() == 1)
+                .verifyComplete();
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshing() {
+        cache.get(this::fetch).block();
+        clock.advance(Duration.ofMinutes(12));
+
+        cache.get(this::fetch)
+                .as(StepVerifier::create)
+                .expectNextMatches(response -> response.number() == 1)
+                .verifyComplete();
+        assertEquals(2, fetches.get());
+
+        cache.get(this::fetch)
+                .as(StepVerifier::create)
+                .expectNextMatches(response -> response.number() == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void expiredEntryWaitsForFetch() {
+        cache.get(this::fetch).block();
+        clock.advance(Duration.ofMinutes(16));
+
+        cache.get(this::fetch)
+                .as(StepVerifier::create)
+                .expectNextMatches(response -> response.number() == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void concurrentMissesShareOneFetch() {
+        Sinks.One<AstroResponse> upstream = Sinks.one();
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<AstroResponse> slowFetch = upstream.asMono()
+                .doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        Mono<AstroResponse> first = cache.get(() -> slowFetch);
+        Mono<AstroResponse> second = cache.get(() -> slowFetch);
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> upstream.tryEmitValue(response(42)))
+                .expectNextMatches(both -> both.getT1() == both.getT2())
+                .verifyComplete();
+        assertEquals(1, subscriptions.get());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.kousenit.restclient.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kousenit.restclient.config.AstroCacheProperties;
+import com.kousenit.restclient.config.AstroSnapshotProperties;
+import com.kousenit.restclient.json.Assignment;
+import com.kousenit.restclient.json.AstroResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AstroSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AstroResponseCache cache =
+            new AstroResponseCache(new AstroCacheProperties(Duration.ofDays(365), Duration.ZERO));
+
+    private AstroSnapshotStore store(int retain) {
+        return new AstroSnapshotStore(new AstroSnapshotProperties(directory, retain), new ObjectMapper(), cache,
+                Schedulers.boundedElastic());
+    }
+
+    private static AstroResponse response(int number) {
+        return new AstroResponse("success", number, List.of(new Assignment("Astronaut " + number, "ISS")));
+    }
+
+    @Test
+    void savesAndLoadsLatestSnapshot() throws Exception {
+        AstroSnapshotStore store = store(5);
+        store.save(response(1))
+                .as(StepVerifier::create)
+                .assertNext(path -> assertTrue(Files.exists(path)))
+                .verifyComplete();
+
+        assertEquals(response(1), store.loadLatest().orElseThrow());
+    }
+
+    @Test
+    void keepsOnlyTheNewestSnapshots() throws Exception {
+        AstroSnapshotStore store = store(2);
+        for (int i = 1; i <= 4; i++) {
+            store.save(response(i)).block();
+            Thread.sleep(2);  // distinct millisecond timestamps
+        }
+
+        assertEquals(2, store.snapshots().size());
+        assertEquals(4, store.loadLatest().orElseThrow().number());
+        try (var files = Files.list(directory)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void primesCacheOnStartup() throws Exception {
+        AstroSnapshotStore store = store(5);
+        store.save(response(7)).block();
+
+        store.primeCacheFromLatestSnapshot();
+
+        cache.get(() -> Mono.error(new AssertionError("should be served from the snapshot")))
+                .as(StepVerifier::create)
+                .expectNext(response(7))
+                .verifyComplete();
+    }
+
+    @Test
+    void skipsCorruptSnapshotOnStartup() throws Exception {
+        AstroSnapshotStore store = store(5);
+        store.save(response(3)).block();
+        Files.writeString(directory.resolve("astronauts-29991231T235959999Z.json"), "{\"message\":");
+        Files.writeString(directory.resolve("astronauts-not-a-timestamp.json"), "{}");
+
+        store.primeCacheFromLatestSnapshot();
+
+        cache.get(() -> Mono.error(new AssertionError("should be served from the older snapshot")))
+                .as(StepVerifier::create)
+                .expectNext(response(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void removesAbandonedTempFilesOnStartup() throws Exception {
+        Path abandoned = Files.createTempFile(directory, "astronauts-", ".tmp");
+        Files.setLastModifiedTime(abandoned, FileTime.fromMillis(0));
+
+        store(5).primeCacheFromLatestSnapshot();
+
+        assertFalse(Files.exists(abandoned));
+    }
+
+    @Test
+    void rejectsRetainingNoSnapshots() {
+        assertThrows(IllegalArgumentException.class, () -> new AstroSnapshotProperties(directory, 0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.json.AstroResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LastAstroResponseTest {
+    private final LastAstroResponse lastResponse = new LastAstroResponse();
+    private final AstroResponse response = new AstroResponse("success", 0, List.of());
+
+    @Test
+    void noValidatorsBeforeFirstResponse() {
+        var headers = new HttpHeaders();
+        lastResponse.addConditionalHeaders(headers);
+        assertTrue(headers.isEmpty());
+    }
+
+    @Test
+    void sendsValidatorsAndResolvesNotModified() {
+        lastResponse.resolve(ResponseEntity.ok()
+                .eTag("\"abc\"")
+                .lastModified(1_700_000_000_000L)
+                .body(response));
+
+        var headers = new HttpHeaders();
+        lastResponse.addConditionalHeaders(headers);
+        assertEquals(List.of("\"abc\""), headers.getIfNoneMatch());
+        assertEquals(1_700_000_000_000L, headers.getIfModifiedSince());
+
+        AstroResponse resolved = lastResponse.resolve(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        assertSame(response, resolved);
+    }
+
+    @Test
+    void notModifiedWithoutEarlierResponseFails() {
+        var notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED).<AstroResponse>build();
+        assertThrows(IllegalStateException.class, () -> lastResponse.resolve(notModified));
+    }
+
+    @Test
+    void emptyBodyFails() {
+        var empty = ResponseEntity.ok().<AstroResponse>build();
+        assertThrows(IllegalStateException.class, () -> lastResponse.resolve(empty));
+    }
+}
@@ -0,0 +1,95 @@
+package com.kousenit.restclient.services;
+
+import com.kousenit.restclient.config.UpstreamResilienceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamResilienceTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private UpstreamResilience resilience(boolean hedge, int maxRetries, double budgetRatio, int budgetCapacity) {
+        return new UpstreamResilience(new UpstreamResilienceProperties(
+                Duration.ofMillis(500), hedge, 0.95, Duration.ofMillis(20), Duration.ofSeconds(1),
+                maxRetries, Duration.ofMillis(1), Duration.ofMillis(5), 0.5, budgetRatio, budgetCapacity),
+                registry);
+    }
+
+    private static WebClientResponseException unavailable() {
+        return WebClientResponseException.create(503, "Service Unavailable", null, null, null);
+    }
+
+    private static void warmUp(UpstreamResilience resilience) {
+        for (int i = 0; i < 20; i++) {
+            resilience.call(() -> Mono.just("warm")).block();
+        }
+    }
+
+    @Test
+    void slowAttemptIsHedged() {
+        UpstreamResilience resilience = resilience(true, 0, 1.0, 10);
+        warmUp(resilience);
+        assertEquals(Duration.ofMillis(20), resilience.hedgeDelay());
+
+        resilience.call(() -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("hedge"))
+                .as(StepVerifier::create)
+                .expectNext("hedge")
+                .verifyComplete();
+        assertEquals(2, attempts.get());
+        assertEquals(1, registry.counter("astro.upstream.hedges").count());
+    }
+
+    @Test
+    void noHedgeBeforeEnoughLatencyIsObserved() {
+        UpstreamResilience resilience = resilience(true, 0, 1.0, 10);
+        assertNull(resilience.hedgeDelay());
+    }
+
+    @Test
+    void serverErrorsAreRetried() {
+        UpstreamResilience resilience = resilience(false, 2, 1.0, 10);
+
+        resilience.call(() -> attempts.incrementAndGet() < 3 ? Mono.error(unavailable()) : Mono.just("ok"))
+                .as(StepVerifier::create)
+                .expectNext("ok")
+                .verifyComplete();
+        assertEquals(3, attempts.get());
+        assertEquals(2, registry.counter("astro.upstream.retries").count());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        UpstreamResilience resilience = resilience(false, 2, 1.0, 10);
+
+        resilience.call(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null));
+                })
+                .as(StepVerifier::create)
+                .verifyError(WebClientResponseException.NotFound.class);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void exhaustedBudgetStopsRetries() {
+        UpstreamResilience resilience = resilience(false, 5, 0.0, 2);
+
+        resilience.call(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(unavailable());
+                })
+                .as(StepVerifier::create)
+                .verifyError(WebClientResponseException.ServiceUnavailable.class);
+        assertEquals(3, attempts.get());
+        assertEquals(1, registry.counter("astro.upstream.budget.exhausted").count());
+    }
+}
@@ -0,0 +1,114 @@
+package com.kousenit.restclient.stub;
+
+import com.kousenit.restclient.json.AstroResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AstroStubTest {
+
+    private static WebClient client(AstroStub stub) {
+        return WebClient.create(stub.baseUrl());
+    }
+
+    private static Mono<AstroResponse> fetch(AstroStub stub) {
+        return client(stub).get()
+                .uri("/astros.json")
+                .retrieve()
+                .bodyToMono(AstroResponse.class);
+    }
+
+    @Test
+    void servesSavedFeed() throws IOException {
+        try (AstroStub stub = AstroStub.start(StubBehavior.defaults())) {
+            fetch(stub).as(StepVerifier::create)
+                    .assertNext(response -> {
+                        assertEquals("success", response.message());
+                        assertEquals(response.number(), response.people().size());
+                    })
+                    .verifyComplete();
+            assertEquals(1, stub.requests());
+        }
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws IOException {
+        try (AstroStub stub = AstroStub.start(StubBehavior.defaults())) {
+            ResponseEntity<AstroResponse> first = client(stub).get()
+                    .uri("/astros.json")
+                    .retrieve()
+                    .toEntity(AstroResponse.class)
+                    .block();
+            String eTag = first.getHeaders().getETag();
+            assertNotNull(eTag);
+            assertTrue(first.getHeaders().getLastModified() > 0);
+
+            client(stub).get()
+                    .uri("/astros.json")
+                    .ifNoneMatch(eTag)
+                    .retrieve()
+                    .toEntity(AstroResponse.class)
+                    .as(StepVerifier::create)
+                    .assertNext(response -> {
+                        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+                        assertNull(response.getBody());
+                    })
+                    .verifyComplete();
+            assertEquals(1, stub.notModified());
+        }
+    }
+
+    @Test
+    void scalesPayloadToRequestedPeople() throws IOException {
+        try (AstroStub stub = AstroStub.start(StubBehavior.defaults().withPeople(500))) {
+            fetch(stub).as(StepVerifier::create)
+                    .assertNext(response -> {
+                        assertEquals(500, response.number());
+                        assertEquals(500, response.people().size());
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void injectsErrors() throws IOException {
+        try (AstroStub stub = AstroStub.start(StubBehavior.defaults().withErrors(1.0, 503))) {
+            fetch(stub).as(StepVerifier::create)
+                    .verifyError(WebClientResponseException.ServiceUnavailable.class);
+        }
+    }
+
+    @Test
+    void delaysAndDripsResponses() throws IOException {
+        var behavior = StubBehavior.defaults()
+                .withLatency(LatencyDistribution.fixed(Duration.ofMillis(100)))
+                .withDrip(256, Duration.ofMillis(10));
+        try (AstroStub stub = AstroStub.start(behavior)) {
+            fetch(stub).as(StepVerifier::create)
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofMillis(100))
+                    .assertNext(response -> assertEquals(response.number(), response.people().size()))
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void parsesLatencyDistributions() {
+        RandomGenerator random = RandomGenerator.getDefault();
+        assertEquals(Duration.ZERO, LatencyDistribution.parse("none").sample(random));
+        assertEquals(Duration.ofMillis(20), LatencyDistribution.parse("fixed:20ms").sample(random));
+        Duration uniform = LatencyDistribution.parse("uniform:10ms-50ms").sample(random);
+        assertTrue(uniform.compareTo(Duration.ofMillis(10)) >= 0 && uniform.compareTo(Duration.ofMillis(50)) <= 0);
+        assertTrue(LatencyDistribution.parse("lognormal:20ms,0.5").sample(random).isPositive());
+    }
+}
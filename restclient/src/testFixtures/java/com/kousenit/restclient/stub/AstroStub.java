@@ -0,0 +1,169 @@
+package com.kousenit.restclient.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kousenit.restclient.json.Assignment;
+import com.kousenit.restclient.json.AstroResponse;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * A local stand-in for api.open-notify.org, on Reactor Netty. It serves {@code /astros.json}
+ * from a saved copy of the feed with injectable latency, errors, payload size and slow-drip
+ * bodies, so the upstream path can be tested and benchmarked without the network.
+ * Like the real feed's CDN, it sends {@code ETag} and {@code Last-Modified} and answers a
+ * matching {@code If-None-Match} with 304 Not Modified, so conditional GETs can be exercised.
+ * <p>
+ * It is a test fixture: tests and benchmarks use it, and it is not part of the application jar.
+ * <p>
+ * Start one in-process with {@link #start(StubBehavior)} and point {@code astro.api.base-url}
+ * at {@link #baseUrl()}, or run it standalone with {@code ./gradlew :restclient:astroStub}.
+ */
+public final class AstroStub implements AutoCloseable {
+    /** The saved feed, relative to the restclient project directory. */
+    public static final Path DEFAULT_SOURCE = Path.of("astronauts.json");
+
+    private final StubBehavior behavior;
+    private final byte[] body;
+    private final String eTag;
+    private final String lastModified;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final DisposableServer server;
+
+    private AstroStub(int port, Path source, StubBehavior behavior) throws IOException {
+        this.behavior = behavior;
+        this.body = body(source, behavior.people());
+        this.eTag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+        this.lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.now().truncatedTo(ChronoUnit.SECONDS).atZone(ZoneOffset.UTC));
+        this.server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes.get("/astros.json", this::handle))
+                .bindNow();
+    }
+
+    public static AstroStub start(StubBehavior behavior) throws IOException {
+        return start(0, DEFAULT_SOURCE, behavior);
+    }
+
+    public static AstroStub start(int port, Path source, StubBehavior behavior) throws IOException {
+        return new AstroStub(port, source, behavior);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    /** Requests received so far, including those answered with an injected error. */
+    public long requests() {
+        return requests.get();
+    }
+
+    /** Requests answered with 304 Not Modified. */
+    public long notModified() {
+        return notModified.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Duration delay = behavior.latency().sample(random);
+        boolean fail = random.nextDouble() < behavior.errorRate();
+        Mono<Void> answer = Mono.defer(() -> fail ?
+                response.status(behavior.errorStatus()).send().then() :
+                respond(request, response));
+        return delay.isZero() ? answer : Mono.delay(delay).then(answer);
+    }
+
+    private Mono<Void> respond(HttpServerRequest request, HttpServerResponse response) {
+        response.header(HttpHeaderNames.ETAG, eTag)
+                .header(HttpHeaderNames.LAST_MODIFIED, lastModified);
+        if (matches(request.requestHeaders().get(HttpHeaderNames.IF_NONE_MATCH))) {
+            notModified.incrementAndGet();
+            return response.status(HttpResponseStatus.NOT_MODIFIED).send().then();
+        }
+        response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length));
+        int chunk = behavior.dripChunk();
+        if (chunk <= 0) {
+            return response.sendByteArray(Mono.just(body)).then();
+        }
+        Flux<byte[]> chunks = Flux.range(0, (body.length + chunk - 1) / chunk)
+                .map(i -> Arrays.copyOfRange(body, i * chunk, Math.min(body.length, (i + 1) * chunk)))
+                .delayElements(behavior.dripInterval());
+        // Flush every chunk, so the client really sees the body arrive slowly
+        return response.send(chunks.map(Unpooled::wrappedBuffer), buffer -> true).then();
+    }
+
+    // If-None-Match: "*", or a list of tags compared weakly (a W/ prefix is ignored)
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+    }
+
+    private static byte[] body(Path source, int people) throws IOException {
+        if (people <= 0) return Files.readAllBytes(source);
+        var mapper = new ObjectMapper();
+        AstroResponse feed = mapper.readValue(source.toFile(), AstroResponse.class);
+        List<Assignment> assignments = IntStream.range(0, people)
+                .mapToObj(i -> feed.people().get(i % feed.people().size()))
+                .toList();
+        return mapper.writeValueAsBytes(new AstroResponse(feed.message(), people, assignments));
+    }
+
+    /**
+     * Options: {@code --port 8089 --source astronauts.json --latency lognormal:20ms,0.5
+     * --error-rate 0.01 --error-status 503 --people 1000 --drip-chunk 512 --drip-interval 10ms}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8089;
+        Path source = DEFAULT_SOURCE;
+        StubBehavior behavior = StubBehavior.defaults();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--source" -> source = Path.of(args[++i]);
+                case "--latency" -> behavior = behavior.withLatency(LatencyDistribution.parse(args[++i]));
+                case "--error-rate" -> behavior = behavior.withErrors(Double.parseDouble(args[++i]), behavior.errorStatus());
+                case "--error-status" -> behavior = behavior.withErrors(behavior.errorRate(), Integer.parseInt(args[++i]));
+                case "--people" -> behavior = behavior.withPeople(Integer.parseInt(args[++i]));
+                case "--drip-chunk" -> behavior = behavior.withDrip(Integer.parseInt(args[++i]), behavior.dripInterval());
+                case "--drip-interval" -> behavior = behavior.withDrip(behavior.dripChunk(), StubBehavior.parseDuration(args[++i]));
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        AstroStub stub = start(port, source, behavior);
+        System.out.println("Serving " + stub.baseUrl() + "/astros.json " + String.join(" ", args));
+        stub.server.onDispose().block();
+    }
+}
@@ -0,0 +1,51 @@
+package com.kousenit.restclient.stub;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * How long {@link AstroStub} waits before answering each request.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    Duration sample(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        return random -> Duration.ofNanos(random.nextLong(min.toNanos(), max.toNanos() + 1));
+    }
+
+    /**
+     * Long-tailed latency, as real services show: half the samples fall below {@code median},
+     * and larger {@code sigma} values stretch the tail (1.0 puts p99 at about 10x the median).
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+    }
+
+    /** Parses {@code none}, {@code fixed:20ms}, {@code uniform:10ms-50ms} or {@code lognormal:20ms,0.5}. */
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.split(":", 2);
+        return switch (parts[0]) {
+            case "none" -> none();
+            case "fixed" -> fixed(StubBehavior.parseDuration(parts[1]));
+            case "uniform" -> {
+                String[] bounds = parts[1].split("-");
+                yield uniform(StubBehavior.parseDuration(bounds[0]), StubBehavior.parseDuration(bounds[1]));
+            }
+            case "lognormal" -> {
+                String[] params = parts[1].split(",");
+                yield logNormal(StubBehavior.parseDuration(params[0]), Double.parseDouble(params[1]));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.kousenit.restclient.stub;
+
+import java.time.Duration;
+
+/**
+ * What {@link AstroStub} does with each request.
+ *
+ * @param latency      delay before the response starts
+ * @param errorRate    fraction of requests answered with {@code errorStatus} instead of the feed
+ * @param errorStatus  HTTP status for injected errors
+ * @param people       astronauts per response, cycling through the source file; 0 keeps the file as is
+ * @param dripChunk    when positive, the body is sent in chunks of this many bytes
+ * @param dripInterval pause between drip chunks
+ */
+public record StubBehavior(LatencyDistribution latency,
+                           double errorRate,
+                           int errorStatus,
+                           int people,
+                           int dripChunk,
+                           Duration dripInterval) {
+
+    public static StubBehavior defaults() {
+        return new StubBehavior(LatencyDistribution.none(), 0.0, 503, 0, 0, Duration.ZERO);
+    }
+
+    public StubBehavior withLatency(LatencyDistribution latency) {
+        return new StubBehavior(latency, errorRate, errorStatus, people, dripChunk, dripInterval);
+    }
+
+    public StubBehavior withErrors(double errorRate, int errorStatus) {
+        return new StubBehavior(latency, errorRate, errorStatus, people, dripChunk, dripInterval);
+    }
+
+    public StubBehavior withPeople(int people) {
+        return new StubBehavior(latency, errorRate, errorStatus, people, dripChunk, dripInterval);
+    }
+
+    public StubBehavior withDrip(int dripChunk, Duration dripInterval) {
+        return new StubBehavior(latency, errorRate, errorStatus, people, dripChunk, dripInterval);
+    }
+
+    // 500ms, 2s, 1m
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("s")) return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        if (value.endsWith("m")) return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        return Duration.ofMillis(Long.parseLong(value));
+    }
+}